@@ -0,0 +1,18 @@
+#!/bin/sh
+# Creates an AppCDS archive of the classes loaded by the command line tool, for JVMs which cannot use a native image.
+# A training run encrypts a small file, the classes it loaded are dumped into the archive.
+# The archive must be created again whenever the jar or the JVM changes.
+#
+# Usage: scripts/appcds.sh s-des.jar [archive]
+# Then:  java -XX:SharedArchiveFile=s-des.jsa -XX:TieredStopAtLevel=1 -jar s-des.jar ...
+set -e
+
+JAR=${1:?"Usage: $0 s-des.jar [archive]"}
+ARCHIVE=${2:-s-des.jsa}
+
+TMP=$(mktemp -d)
+trap 'rm -rf "$TMP"' EXIT
+echo "AppCDS training run" > "$TMP/training.txt"
+
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -jar "$JAR" -k 0000000000 -i "$TMP/training.txt" -o "$TMP/training.enc.txt"
+echo "Archive written to $ARCHIVE"
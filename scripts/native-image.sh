@@ -0,0 +1,11 @@
+#!/bin/sh
+# Compiles the command line tool ahead of time with GraalVM native-image.
+# The options are read from META-INF/native-image in the jar.
+#
+# Usage: scripts/native-image.sh s-des.jar [output]
+set -e
+
+JAR=${1:?"Usage: $0 s-des.jar [output]"}
+OUTPUT=${2:-s-des}
+
+native-image -jar "$JAR" -o "$OUTPUT"
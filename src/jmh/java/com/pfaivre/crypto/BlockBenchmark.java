@@ -0,0 +1,109 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * BlockBenchmark.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Encryption and decryption of single bytes and of whole arrays and buffers
+ * The megabytes counter gives the throughput in MB/s. Run with -prof gc to see the allocations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockBenchmark {
+    @Param({"1024", "65536", "1048576"})
+    private int size;
+
+    private SDES sdes;
+    private byte block;
+    private byte[] src;
+    private byte[] dst;
+    private byte[] table;
+    private ByteBuffer directSrc;
+    private ByteBuffer directDst;
+
+    @Setup
+    public void setup() {
+        this.sdes = new SDES("0111010001");
+        this.src = new byte[this.size];
+        this.dst = new byte[this.size];
+        new Random(42).nextBytes(this.src);
+
+        this.table = new byte[256];
+        for (int i = 0 ; i < this.table.length ; i++)
+            this.table[i] = this.sdes.encrypt((byte)i);
+
+        this.directSrc = ByteBuffer.allocateDirect(this.size);
+        this.directSrc.put(this.src).flip();
+        this.directDst = ByteBuffer.allocateDirect(this.size);
+    }
+
+    @Benchmark
+    public byte encryptByte(ByteCounter counter) {
+        counter.bytes++;
+        return this.sdes.encrypt(this.block++);
+    }
+
+    @Benchmark
+    public byte decryptByte(ByteCounter counter) {
+        counter.bytes++;
+        return this.sdes.decrypt(this.block++);
+    }
+
+    /**
+     * Complete S-DES steps on boolean[], as done before the substitution tables
+     */
+    @Benchmark
+    public byte encryptByteUncached(ByteCounter counter) {
+        counter.bytes++;
+        return this.sdes.encryptBlock(this.block++);
+    }
+
+    @Benchmark
+    public byte[] encryptArray(ByteCounter counter) {
+        this.sdes.encrypt(this.src, 0, this.size, this.dst, 0);
+        counter.bytes += this.size;
+        return this.dst;
+    }
+
+    /**
+     * Plain loop, to compare with encryptArray when the Vector API implementation is used
+     */
+    @Benchmark
+    public byte[] encryptArrayScalar(ByteCounter counter) {
+        BulkTransformer.SCALAR.transform(this.table, this.src, 0, this.size, this.dst, 0);
+        counter.bytes += this.size;
+        return this.dst;
+    }
+
+    @Benchmark
+    public byte[] decryptArray(ByteCounter counter) {
+        this.sdes.decrypt(this.src, 0, this.size, this.dst, 0);
+        counter.bytes += this.size;
+        return this.dst;
+    }
+
+    @Benchmark
+    public ByteBuffer encryptDirectBuffer(ByteCounter counter) {
+        this.directSrc.clear();
+        this.directDst.clear();
+        this.sdes.encrypt(this.directSrc, this.directDst);
+        counter.bytes += this.size;
+        return this.directDst;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * ByteCounter.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the bytes processed by a benchmark
+ * JMH reports it next to the main result as the "megabytes" secondary result: with the ops/s unit of the
+ * benchmarks, a throughput in MB/s (10^6 bytes per second).
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ByteCounter {
+    /**
+     * Bytes processed during the iteration, not reported by itself
+     */
+    long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        this.bytes = 0;
+    }
+
+    /**
+     * @return The megabytes processed during the iteration
+     */
+    public double megabytes() {
+        return this.bytes / 1e6;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * FileBenchmark.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Encryption of whole files of several sizes, with each file engine
+ * The megabytes counter gives the throughput in MB/s. Run with -prof gc to see the allocations.
+ * The files are written in the default temporary directory (java.io.tmpdir).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileBenchmark {
+    @Param({"65536", "16777216", "268435456"})
+    private long size;
+
+    private SDES sdes;
+    private File inputFile;
+    private File outputFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.sdes = new SDES("0111010001");
+        this.inputFile = File.createTempFile("sdes-bench", ".txt");
+        this.outputFile = File.createTempFile("sdes-bench", ".enc.txt");
+
+        byte[] chunk = new byte[1024 * 1024];
+        Random random = new Random(42);
+        OutputStream output = new BufferedOutputStream(new FileOutputStream(this.inputFile));
+        try {
+            for (long written = 0 ; written < this.size ; written += chunk.length) {
+                random.nextBytes(chunk);
+                output.write(chunk, 0, (int)Math.min(chunk.length, this.size - written));
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.inputFile.delete();
+        this.outputFile.delete();
+    }
+
+    @Benchmark
+    public void encryptFile(ByteCounter counter) throws IOException {
+        this.sdes.encryptFile(this.inputFile, this.outputFile);
+        counter.bytes += this.size;
+    }
+
+    @Benchmark
+    public void encryptFileMapped(ByteCounter counter) throws IOException {
+        this.sdes.encryptFileMapped(this.inputFile, this.outputFile);
+        counter.bytes += this.size;
+    }
+
+    @Benchmark
+    public void encryptFileParallel(ByteCounter counter) throws IOException {
+        new ParallelFileCipher(this.sdes, Runtime.getRuntime().availableProcessors())
+                .encryptFile(this.inputFile, this.outputFile);
+        counter.bytes += this.size;
+    }
+}
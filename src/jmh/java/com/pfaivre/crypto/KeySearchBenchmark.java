@@ -0,0 +1,53 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * KeySearchBenchmark.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Number of samples cracked per second by a known-plaintext search
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeySearchBenchmark {
+    @Param({"1", "4"})
+    private int threads;
+
+    private KeySearch search;
+    private byte[] plaintext = "Intercepted text".getBytes();
+    private byte[] ciphertext = new byte[plaintext.length];
+
+    @Setup
+    public void setup() {
+        this.search = new KeySearch(this.threads);
+        new SDES("1111111111").encrypt(this.plaintext, 0, this.plaintext.length, this.ciphertext, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.search.close();
+    }
+
+    @Benchmark
+    public int findFirstKey() {
+        return this.search.findFirstKey(this.plaintext, this.ciphertext);
+    }
+
+    @Benchmark
+    public int[] findKeys() {
+        return this.search.findKeys(this.plaintext, this.ciphertext);
+    }
+}
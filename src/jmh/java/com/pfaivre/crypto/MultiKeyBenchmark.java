@@ -0,0 +1,69 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * MultiKeyBenchmark.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Encryption of the same plaintext under all the 1024 keys
+ * The megabytes counter gives the ciphertext produced, in MB/s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiKeyBenchmark {
+    @Param({"16", "4096", "65536"})
+    private int size;
+
+    private MultiKeyCipher cipher;
+    private byte[] src;
+    private byte[][] dst;
+    private byte[] interleaved;
+
+    @Setup
+    public void setup() {
+        this.cipher = MultiKeyCipher.allKeys();
+        this.src = new byte[this.size];
+        new Random(42).nextBytes(this.src);
+        this.dst = new byte[KeySearch.KEY_COUNT][this.size];
+        this.interleaved = new byte[KeySearch.KEY_COUNT * this.size];
+    }
+
+    /**
+     * A new instance of SDES per key, as done before MultiKeyCipher
+     */
+    @Benchmark
+    public byte[][] newInstancePerKey(ByteCounter counter) {
+        for (int key = 0 ; key < KeySearch.KEY_COUNT ; key++)
+            new SDES(SDES.keyToString(key)).encrypt(this.src, 0, this.size, this.dst[key], 0);
+        counter.bytes += (long)KeySearch.KEY_COUNT * this.size;
+        return this.dst;
+    }
+
+    @Benchmark
+    public byte[][] multiKey(ByteCounter counter) {
+        this.cipher.encrypt(this.src, 0, this.size, this.dst, 0);
+        counter.bytes += (long)KeySearch.KEY_COUNT * this.size;
+        return this.dst;
+    }
+
+    @Benchmark
+    public byte[] multiKeyInterleaved(ByteCounter counter) {
+        this.cipher.encryptInterleaved(this.src, 0, this.size, this.interleaved, 0);
+        counter.bytes += (long)KeySearch.KEY_COUNT * this.size;
+        return this.interleaved;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * PrimitivesBenchmark.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Time taken by each S-DES primitive, in its boolean[] and bit-packed versions
+ * Run with -prof gc to see the allocations per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitivesBenchmark {
+    // 1010000010
+    private boolean[] masterKey = new boolean[] {true, false, true, false, false, false, false, false, true, false};
+    private int packedMasterKey = 0b1010000010;
+
+    // 01110100
+    private boolean[] bits = new boolean[] {false, true, true, true, false, true, false, false};
+    private int packedBits = 0b01110100;
+
+    // 00101111
+    private boolean[] subkey = new boolean[] {false, false, true, false, true, true, true, true};
+    private int packedSubkey = 0b00101111;
+
+    private int offset = 3;
+
+    @Benchmark
+    public boolean[] fK() {
+        return SDES.fK(this.bits, this.subkey);
+    }
+
+    @Benchmark
+    public int fKPacked() {
+        return SDESBits.fK(this.packedBits, this.packedSubkey);
+    }
+
+    @Benchmark
+    public boolean[] sboxTransform() {
+        return SDES.sboxTransform(this.bits);
+    }
+
+    @Benchmark
+    public int sboxTransformPacked() {
+        return SDESBits.sboxTransform(this.packedBits);
+    }
+
+    @Benchmark
+    public boolean[] circularLeftShift() {
+        return SDES.circularLeftShift(this.masterKey, this.offset);
+    }
+
+    @Benchmark
+    public int circularLeftShiftPacked() {
+        return SDESBits.circularLeftShift(this.packedMasterKey, this.offset);
+    }
+
+    @Benchmark
+    public ArrayList<boolean[]> generateKeys() {
+        return SDES.generateKeys(this.masterKey);
+    }
+
+    @Benchmark
+    public int generateKeysPacked() {
+        return SDESBits.generateKeys(this.packedMasterKey);
+    }
+
+    @Benchmark
+    public SDES newInstance() {
+        return new SDES("1010000010");
+    }
+
+    @Benchmark
+    public SDES forKey() {
+        return SDES.forKey(this.packedMasterKey);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * Inputs.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.pfaivre.crypto.SDES;
+
+/**
+ * Expands the inputs given on the command line into the list of files to process
+ * An input can be a file, a directory (walked recursively when allowed) or a glob pattern such as "logs/**.txt".
+ */
+class Inputs {
+    private Inputs() {
+    }
+
+    /**
+     * Gathers the files to process
+     * @param inputs Files, directories or glob patterns
+     * @param listFile File listing one input per line, or null
+     * @param recursive true to process the files of the directories and of their sub-directories
+     * @return The files, without duplicates, in the order of the inputs. The files of a directory or of a pattern
+     * come sorted by path, whatever the order the file system lists them in.
+     * @throws IOException if an input cannot be found or read, or if it is a directory and recursive is false
+     */
+    static List<File> collect(List<String> inputs, String listFile, boolean recursive) throws IOException {
+        List<String> all = new ArrayList<>(inputs);
+
+        if (listFile != null) {
+            for (String line : Files.readAllLines(Paths.get(listFile), Charset.defaultCharset())) {
+                if (!line.trim().isEmpty())
+                    all.add(line.trim());
+            }
+        }
+
+        Set<File> files = new LinkedHashSet<>();
+        for (String input : all) {
+            if (isGlob(input))
+                addGlob(files, input);
+            else
+                addPath(files, new File(input), recursive);
+        }
+
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * Tells whether an input is a glob pattern
+     */
+    private static boolean isGlob(String input) {
+        for (char c : input.toCharArray())
+            if (c == '*' || c == '?' || c == '[' || c == '{')
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Tells whether a file is the journal of an in-place run, or its temporary file
+     * They are left out of the directories and the patterns, so a batch run does not encrypt them.
+     */
+    static boolean isJournal(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(SDES.JOURNAL_SUFFIX) || name.endsWith(SDES.JOURNAL_TMP_SUFFIX);
+    }
+
+    /**
+     * Adds a file, or all the files of a directory
+     */
+    private static void addPath(Set<File> files, File path, boolean recursive) throws IOException {
+        if (!path.exists())
+            throw new FileNotFoundException(String.format("Unable to find the file %s.", path.getPath()));
+
+        if (!path.isDirectory()) {
+            files.add(path);
+            return;
+        }
+
+        if (!recursive)
+            throw new IOException(String.format(
+                    "%s is a directory. Please provide a single file, or use -r to process whole directories", path.getPath()));
+
+        final List<File> found = new ArrayList<>();
+        Files.walkFileTree(path.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && !isJournal(file))
+                    found.add(file.toFile());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Collections.sort(found);
+        files.addAll(found);
+    }
+
+    /**
+     * Adds all the files matching a glob pattern
+     * The walk starts from the longest leading part of the pattern without any wildcard.
+     */
+    private static void addGlob(Set<File> files, String pattern) throws IOException {
+        String separator = File.separator;
+        String[] parts = pattern.split(separator.equals("\\") ? "\\\\" : separator);
+
+        StringBuilder base = new StringBuilder();
+        int i = 0;
+        for ( ; i < parts.length - 1 && !isGlob(parts[i]) ; i++)
+            base.append(parts[i]).append(separator);
+
+        final Path root = Paths.get(base.length() == 0 ? "." : base.toString());
+        StringBuilder rest = new StringBuilder();
+        for ( ; i < parts.length ; i++) {
+            if (rest.length() > 0)
+                rest.append(separator);
+            rest.append(parts[i]);
+        }
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + rest);
+
+        if (!Files.isDirectory(root))
+            throw new FileNotFoundException(String.format("Unable to find the directory %s.", root));
+
+        final List<File> found = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && !isJournal(file) && matcher.matches(root.relativize(file)))
+                    found.add(root.equals(Paths.get(".")) ? root.relativize(file).toFile() : file.toFile());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Collections.sort(found);
+        files.addAll(found);
+    }
+}
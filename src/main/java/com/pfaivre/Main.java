@@ -0,0 +1,509 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * Main.java
+ * Creation : 30/03/2016
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.management.JMException;
+
+import com.pfaivre.crypto.BufferPool;
+import com.pfaivre.crypto.ChainedCipher;
+import com.pfaivre.crypto.CipherClient;
+import com.pfaivre.crypto.CipherMetrics;
+import com.pfaivre.crypto.CipherServer;
+import com.pfaivre.crypto.FileCipherService;
+import com.pfaivre.crypto.ParallelFileCipher;
+import com.pfaivre.crypto.PipelinedFileCipher;
+import com.pfaivre.crypto.SDES;
+
+public class Main {
+    /**
+     * Name given to -i or -o for the standard input or output
+     */
+    private static final String STANDARD_STREAM = "-";
+
+    /**
+     * Path leading to the file redirected to the standard input, where the system has one
+     */
+    private static final String STANDARD_INPUT_PATH = "/dev/stdin";
+
+    /**
+     * Size of the chunks read from the standard input and written to the standard output (1 MiB)
+     */
+    private static final int STREAM_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Name of the secret file of the server in the home directory, when --secret is not given
+     */
+    private static final String DEFAULT_SECRET_FILE = ".sdes-secret";
+
+    /**
+     * Options given on the command line
+     */
+    private Options options;
+
+    /**
+     * Where the messages are printed: the standard error when the standard output carries the data
+     */
+    private PrintStream log = System.out;
+
+    /**
+     * Cipher of the mode given with --mode, null in ECB
+     */
+    private ChainedCipher chained = null;
+
+    /**
+     * Progress printed with --progress, null otherwise
+     */
+    private ProgressReporter progress = null;
+
+    public static void main(String[] args) throws IOException {
+        new Main().doMain(args);
+    }
+
+    private void doMain(String[] args) throws IOException {
+        try {
+            // parse the arguments.
+            this.options = Options.parse(args);
+        } catch (Options.UsageException e) {
+            System.err.println(e.getMessage());
+            // print the list of available options
+            Options.printUsage(System.err);
+            System.err.println();
+            System.exit(1);
+        }
+
+        boolean error = false;
+
+        List<String> inputs = new ArrayList<>(this.options.inputFiles);
+        inputs.addAll(this.options.arguments);
+
+        if (this.options.serve >= 0) {
+            if (!inputs.isEmpty() || this.options.listFile != null) {
+                System.err.println("The server takes no input file, they are sent with --connect");
+                System.exit(1);
+            }
+            this.serve();
+            return;
+        }
+
+        boolean fromStdin = inputs.contains(STANDARD_STREAM);
+        // Without -o, the standard input goes to the standard output
+        boolean toStdout = STANDARD_STREAM.equals(this.options.outputFile) || (fromStdin && this.options.outputFile == null);
+        if (toStdout)
+            this.log = System.err;
+
+        List<File> files = new ArrayList<>();
+        if (inputs.isEmpty() && this.options.listFile == null) {
+            System.err.println("Please provide at least one input file");
+            error = true;
+        }
+        else if (fromStdin) {
+            if (inputs.size() > 1 || this.options.listFile != null || this.options.inPlace) {
+                System.err.println("The standard input can only be used alone, and not in place");
+                error = true;
+            }
+        }
+
+        // The standard streams are read and written in order on a single thread, rather than dropping these options
+        if (fromStdin || toStdout) {
+            if (this.options.mmap || this.options.pipeline || this.options.threads > 1) {
+                System.err.println("The standard input and output cannot be used with -m, -p or -t");
+                error = true;
+            }
+        }
+        else {
+            try {
+                files = Inputs.collect(inputs, this.options.listFile, this.options.recursive);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                error = true;
+            }
+
+            if (this.options.outputFile != null && files.size() > 1) {
+                System.err.println("An output can only be given with a single input file");
+                error = true;
+            }
+        }
+
+        // Opening the output truncates it, so it cannot be the input, even through a link
+        if (this.options.outputFile != null && !toStdout) {
+            File oFile = new File(this.options.outputFile);
+            List<File> read = fromStdin ? Collections.singletonList(new File(STANDARD_INPUT_PATH)) : files;
+            for (File iFile : read) {
+                if (isSameFile(iFile, oFile)) {
+                    System.err.println(String.format("The output %s is the input file, use --in-place to rewrite a file", oFile.getPath()));
+                    error = true;
+                }
+            }
+        }
+
+        if (this.options.key.length() != 10) {
+            System.err.println("The key must be of the size of 10 bits");
+            error = true;
+        }
+        else {
+            for (char c : this.options.key.toCharArray()) {
+                if (c != '0' && c != '1') {
+                    System.err.println("The key must composed of bits (0 or 1)");
+                    error = true;
+                }
+            }
+        }
+
+        if (this.options.iv != null) {
+            try {
+                ChainedCipher.parseIv(this.options.iv);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                error = true;
+            }
+        }
+
+        if (this.options.threads < 1) {
+            System.err.println("The number of threads must be at least 1");
+            error = true;
+        }
+        if (this.options.jobs < 1) {
+            System.err.println("The number of jobs must be at least 1");
+            error = true;
+        }
+
+        if (error)
+            System.exit(1);
+
+        if (this.options.verbose)
+            this.log.println(String.format("Key: %s", this.options.key));
+
+        final SDES sdes = SDES.forKey(this.options.key);
+        if (this.options.mode != ChainedCipher.Mode.ECB) {
+            this.chained = new ChainedCipher(sdes, this.options.mode, ChainedCipher.parseIv(this.options.iv),
+                    this.options.threads);
+        }
+
+        if (fromStdin) {
+            if (this.options.progress)
+                this.progress = new ProgressReporter(this.log, -1);
+            try {
+                this.processStream(sdes, new FileInputStream(FileDescriptor.in));
+            } finally {
+                if (this.progress != null)
+                    this.progress.finish();
+            }
+            if (this.options.verbose)
+                this.log.println("Finished.");
+            return;
+        }
+
+        if (this.options.progress) {
+            long total = 0;
+            for (File file : files)
+                total += file.length();
+            this.progress = new ProgressReporter(this.log, total);
+        }
+
+        boolean batch = files.size() > 1 || this.options.recursive || this.options.listFile != null;
+
+        long start = System.nanoTime();
+        long bytes = 0;
+        int processed = 0;
+        int failed = 0;
+
+        // At most "jobs" files are processed at the same time, each on a virtual thread when the JVM has them
+        FileCipherService service = new FileCipherService(sdes, this.options.jobs);
+        if (this.options.verbose && batch)
+            this.log.println(String.format("%d job(s) on %s threads", this.options.jobs, service.isVirtual() ? "virtual" : "platform"));
+
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (final File iFile : files) {
+                results.add(service.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return processFile(sdes, iFile);
+                    }
+                }));
+            }
+
+            for (int i = 0 ; i < files.size() ; i++) {
+                try {
+                    bytes += results.get(i).get();
+                    processed++;
+                } catch (ExecutionException e) {
+                    System.err.println(String.format("Unable to process %s: %s", files.get(i).getPath(), e.getCause().getMessage()));
+                    failed++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    System.exit(1);
+                }
+            }
+        } finally {
+            service.close();
+            if (this.progress != null)
+                this.progress.finish();
+        }
+
+        if (batch) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            this.log.println(String.format("%d file(s) processed, %d failed, %d bytes in %.2f s (%.1f MB/s)",
+                    processed, failed, bytes, seconds, seconds > 0 ? bytes / seconds / 1e6 : 0.0));
+
+            if (this.options.verbose) {
+                CipherMetrics metrics = CipherMetrics.getInstance();
+                this.log.println(String.format("Time per file: p50 %.3f ms, p99 %.3f ms",
+                        metrics.latencyPercentile(50), metrics.latencyPercentile(99)));
+
+                BufferPool streams = BufferPool.getDefault();
+                BufferPool chunks = BufferPool.getChunks();
+                this.log.println(String.format("Buffers: %d reused, %d allocated",
+                        streams.getHits() + chunks.getHits(), streams.getMisses() + chunks.getMisses()));
+            }
+        }
+
+        if (this.options.verbose) {
+            this.log.println("Finished.");
+        }
+
+        if (failed > 0)
+            System.exit(1);
+    }
+
+    /**
+     * Runs the server of --serve until the program is stopped
+     * The port is printed first, so a script starting it on any free port can read it.
+     */
+    private void serve() throws IOException {
+        File secretFile = this.secretFile();
+        CipherServer server = new CipherServer(this.options.serve, secretFile,
+                this.options.root != null ? new File(this.options.root) : null);
+        // The server is usually stopped by a signal, which skips the finally below
+        secretFile.deleteOnExit();
+
+        try {
+            CipherMetrics.registerMBean();
+        } catch (JMException e) {
+            System.err.println(String.format("Unable to register the metrics: %s", e.getMessage()));
+        }
+
+        this.log.println(String.format("Listening on port %d", server.getPort()));
+        if (this.options.verbose) {
+            this.log.println(String.format("Secret written to %s", secretFile.getPath()));
+            this.log.println(this.options.root != null
+                    ? String.format("Files served from %s", this.options.root)
+                    : "No root directory, only the streams are served");
+            this.log.println(String.format("Connections on %s threads", server.isVirtual() ? "virtual" : "platform"));
+        }
+
+        try {
+            server.serve();
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * Encrypts or decrypts one file according to the options
+     * @param sdes Cipher of the key
+     * @param iFile File to process
+     * @return The number of bytes processed
+     */
+    private long processFile(SDES sdes, File iFile) throws IOException {
+        long size = iFile.length();
+
+        if (this.options.verbose)
+            this.log.println(String.format("Input file: %s", iFile.getPath()));
+
+        if (this.options.inPlace) {
+            if (this.options.decrypt) {
+                if (this.options.verbose)
+                    this.log.println(String.format("Decripting %s in place", iFile.getPath()));
+                sdes.decryptInPlace(iFile.toPath(), SDES.DEFAULT_IN_PLACE_CHUNK_SIZE, this.progress);
+            }
+            else {
+                if (this.options.verbose)
+                    this.log.println(String.format("Encrypting %s in place", iFile.getPath()));
+                sdes.encryptInPlace(iFile.toPath(), SDES.DEFAULT_IN_PLACE_CHUNK_SIZE, this.progress);
+            }
+        }
+        else if (STANDARD_STREAM.equals(this.options.outputFile)) {
+            InputStream input = new FileInputStream(iFile);
+            try {
+                this.processStream(sdes, input);
+            } finally {
+                input.close();
+            }
+        }
+        else {
+            File oFile = this.options.outputFile != null ? new File(this.options.outputFile) : this.outputFor(iFile);
+
+            if (this.options.decrypt) {
+                if (this.options.verbose)
+                    this.log.println(String.format("Decripting the file into %s", oFile.getPath()));
+                if (this.options.connect >= 0)
+                    this.sendFile(iFile, oFile);
+                else if (this.chained != null)
+                    this.chained.decryptFile(iFile, oFile, this.progress);
+                else if (this.options.mmap)
+                    sdes.decryptFileMapped(iFile, oFile, this.progress);
+                else if (this.options.pipeline)
+                    new PipelinedFileCipher(sdes, this.options.threads).decryptFile(iFile, oFile, this.progress);
+                else if (this.options.threads > 1)
+                    new ParallelFileCipher(sdes, this.options.threads).decryptFile(iFile, oFile, this.progress);
+                else
+                    sdes.decryptFile(iFile, oFile, SDES.DEFAULT_BUFFER_SIZE, this.progress);
+            }
+            else {
+                if (this.options.verbose)
+                    this.log.println(String.format("Encrypting the file into %s", oFile.getPath()));
+                if (this.options.connect >= 0)
+                    this.sendFile(iFile, oFile);
+                else if (this.chained != null)
+                    this.chained.encryptFile(iFile, oFile, this.progress);
+                else if (this.options.mmap)
+                    sdes.encryptFileMapped(iFile, oFile, this.progress);
+                else if (this.options.pipeline)
+                    new PipelinedFileCipher(sdes, this.options.threads).encryptFile(iFile, oFile, this.progress);
+                else if (this.options.threads > 1)
+                    new ParallelFileCipher(sdes, this.options.threads).encryptFile(iFile, oFile, this.progress);
+                else
+                    sdes.encryptFile(iFile, oFile, SDES.DEFAULT_BUFFER_SIZE, this.progress);
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Encrypts or decrypts a stream into the output given with -o, the standard output by default
+     * @param sdes Cipher of the key
+     * @param input Stream to process until its end
+     */
+    private void processStream(SDES sdes, InputStream input) throws IOException {
+        boolean toFile = this.options.outputFile != null && !STANDARD_STREAM.equals(this.options.outputFile);
+        OutputStream output = toFile
+                ? new FileOutputStream(this.options.outputFile)
+                : new FileOutputStream(FileDescriptor.out);
+
+        try {
+            if (this.options.connect >= 0)
+                this.sendStream(input, output);
+            else if (this.chained != null && this.options.decrypt)
+                this.chained.decryptStream(input, output, STREAM_BUFFER_SIZE, this.progress);
+            else if (this.chained != null)
+                this.chained.encryptStream(input, output, STREAM_BUFFER_SIZE, this.progress);
+            else if (this.options.decrypt)
+                sdes.decryptStream(input, output, STREAM_BUFFER_SIZE, this.progress);
+            else
+                sdes.encryptStream(input, output, STREAM_BUFFER_SIZE, this.progress);
+        } finally {
+            if (toFile)
+                output.close();
+            else
+                output.flush();
+        }
+    }
+
+    /**
+     * Gives the file holding the secret of the server, given by --secret or in the home directory
+     */
+    private File secretFile() {
+        return this.options.secretFile != null
+                ? new File(this.options.secretFile)
+                : new File(System.getProperty("user.home"), DEFAULT_SECRET_FILE);
+    }
+
+    /**
+     * Has the server of --connect encrypt or decrypt a file
+     * Each file gets its own connection, so the jobs of -j do not wait for each other.
+     * @param iFile File to process
+     * @param oFile File to write
+     */
+    private void sendFile(File iFile, File oFile) throws IOException {
+        CipherClient client = new CipherClient(this.options.connect, this.secretFile());
+
+        try {
+            if (this.options.decrypt)
+                client.decryptFile(SDES.parseKey(this.options.key), iFile, oFile);
+            else
+                client.encryptFile(SDES.parseKey(this.options.key), iFile, oFile);
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * Has the server of --connect encrypt or decrypt a stream
+     * @param input Stream to process until its end
+     * @param output Stream receiving the result
+     */
+    private void sendStream(InputStream input, OutputStream output) throws IOException {
+        CipherClient client = new CipherClient(this.options.connect, this.secretFile());
+
+        try {
+            if (this.options.decrypt)
+                client.decryptStream(SDES.parseKey(this.options.key), input, output);
+            else
+                client.encryptStream(SDES.parseKey(this.options.key), input, output);
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * Tells whether two paths lead to the same file
+     * @param iFile File to read
+     * @param oFile File to write, which may not exist yet
+     * @return false if the output does not exist or if the files cannot be compared
+     */
+    private static boolean isSameFile(File iFile, File oFile) {
+        if (!oFile.exists())
+            return false;
+
+        try {
+            return Files.isSameFile(iFile.toPath(), oFile.toPath());
+        } catch (IOException e) {
+            // A pipe on the standard input, or a file which cannot be read: nothing to overwrite
+            return false;
+        }
+    }
+
+    /**
+     * Gives the default output of a file: its name with .enc or .dec before the extension
+     * For example notes.txt becomes notes.enc.txt, and notes becomes notes.enc.
+     * @param iFile File to process
+     * @return The file to write
+     */
+    private File outputFor(File iFile) {
+        String operation = this.options.decrypt ? "dec" : "enc";
+        String name = iFile.getName();
+        int dot = name.lastIndexOf('.');
+
+        // A leading dot (hidden file) is not an extension
+        String outputName = dot > 0
+                ? String.format("%s.%s%s", name.substring(0, dot), operation, name.substring(dot))
+                : String.format("%s.%s", name, operation);
+
+        return new File(iFile.getParentFile(), outputName);
+    }
+}
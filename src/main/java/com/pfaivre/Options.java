@@ -0,0 +1,304 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * Options.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.pfaivre.crypto.ChainedCipher;
+
+/**
+ * Options of the command line
+ * They are read by hand rather than through annotations and reflection, so the start of the program stays short
+ * and it can be compiled ahead of time (GraalVM native-image) without any reflection configuration.
+ */
+class Options {
+    /**
+     * Thrown when the command line cannot be understood
+     */
+    static class UsageException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UsageException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Options and their description, as printed by printUsage
+     */
+    private static final String[][] USAGE = {
+        {"--connect PORT", "send the inputs to the server started with --serve on this local port instead of processing them"},
+        {"-d (--decrypt)", "decrypt a crypted file (default: false)"},
+        {"-e (--encrypt)", "encrypt a plain file (default: true)"},
+        {"-i (--input) FILE", "input file, directory or glob pattern (e.g. 'logs/**.txt'), or - for the standard input. can be repeated"},
+        {"--iv BITS", "8-bit initialization vector, or first value of the counter in ctr (e.g. 10110011). required by the chained modes"},
+        {"--in-place", "rewrite the input file instead of creating a new one. an interrupted run is resumed by running the same command again"},
+        {"-j (--jobs) N", "number of files processed at the same time, on virtual threads with java 21 (default: 1)"},
+        {"-k (--key) KEY", "10-bit key (e.g. 0100101100)"},
+        {"-l (--list) FILE", "file listing the inputs, one per line"},
+        {"-m (--mmap)", "map the files in memory instead of reading them by chunks"},
+        {"--mode MODE", "mode of operation: ecb, cbc, ofb or ctr (default: ecb). ctr and the cbc decryption use the threads of -t"},
+        {"-o (--output) FILE", "output file, or - for the standard output. only with a single input. by default the input name with .enc or .dec before its extension"},
+        {"-p (--pipeline)", "overlap the reads, the encryption on the threads of -t and the writes. suits slow or remote storage"},
+        {"--progress", "print the bytes done, the speed and the time left every second"},
+        {"-r (--recursive)", "process the files of the given directories and of their sub-directories"},
+        {"--root DIR", "directory holding the files the server of --serve may read and write. without it, --connect can only send the standard input"},
+        {"--secret FILE", "file where --serve writes its secret, readable by its owner only, and where --connect reads it (default: ~/.sdes-secret)"},
+        {"--serve PORT", "run a server answering the requests of --connect on this local port (0 for any free one) until stopped. the key is given by each request"},
+        {"-t (--threads) N", "number of threads sharing the work on each file (default: 1)"},
+        {"-v", "verbose mode. prints more details"},
+        {"FILE...", "more input files, directories or glob patterns"},
+    };
+
+    /**
+     * Pairs of options which cannot be used together
+     */
+    private static final String[][] FORBIDDEN = {
+        {"-e", "-d"},
+        {"-m", "--in-place"},
+        {"-t", "-m"},
+        {"-t", "--in-place"},
+        {"-p", "-m"},
+        {"-p", "--in-place"},
+        {"-o", "--in-place"},
+        {"--serve", "--connect"},
+        {"--connect", "-m"},
+        {"--connect", "--in-place"},
+        {"--connect", "-p"},
+        {"--connect", "-t"},
+        {"--connect", "--mode"},
+        {"--connect", "--progress"},
+        {"--connect", "--root"},
+    };
+
+    boolean encrypt = true;
+    boolean decrypt = false;
+    List<String> inputFiles = new ArrayList<>();
+    List<String> arguments = new ArrayList<>();
+    String outputFile = null;
+    String listFile = null;
+    boolean recursive = false;
+    String key = null;
+    boolean mmap = false;
+    boolean inPlace = false;
+    boolean pipeline = false;
+    ChainedCipher.Mode mode = ChainedCipher.Mode.ECB;
+    String iv = null;
+    int threads = 1;
+    int jobs = 1;
+    boolean verbose = false;
+    boolean progress = false;
+    int serve = -1;
+    int connect = -1;
+    String root = null;
+    String secretFile = null;
+
+    /**
+     * Reads the command line
+     * @param args Arguments given to the program
+     * @return The options
+     * @throws UsageException if an option is unknown, misses its value or conflicts with another one
+     */
+    static Options parse(String[] args) throws UsageException {
+        Options options = new Options();
+        Set<String> given = new HashSet<>();
+        boolean onlyArguments = false;
+
+        for (int i = 0 ; i < args.length ; i++) {
+            String arg = args[i];
+
+            // After "--", or for anything which does not look like an option, it is an input
+            if (onlyArguments || !arg.startsWith("-") || arg.equals("-")) {
+                options.arguments.add(arg);
+                continue;
+            }
+
+            String name = canonicalName(arg);
+            given.add(name);
+
+            switch (name) {
+                case "--":
+                    onlyArguments = true;
+                    break;
+                case "-e":
+                    options.encrypt = true;
+                    break;
+                case "-d":
+                    options.decrypt = true;
+                    break;
+                case "-i":
+                    options.inputFiles.add(value(args, i++));
+                    break;
+                case "-o":
+                    options.outputFile = value(args, i++);
+                    break;
+                case "-l":
+                    options.listFile = value(args, i++);
+                    break;
+                case "-r":
+                    options.recursive = true;
+                    break;
+                case "-k":
+                    options.key = value(args, i++);
+                    break;
+                case "-m":
+                    options.mmap = true;
+                    break;
+                case "--in-place":
+                    options.inPlace = true;
+                    break;
+                case "-p":
+                    options.pipeline = true;
+                    break;
+                case "--mode":
+                    options.mode = modeValue(args, i++);
+                    break;
+                case "--iv":
+                    options.iv = value(args, i++);
+                    break;
+                case "-t":
+                    options.threads = intValue(args, i++);
+                    break;
+                case "-j":
+                    options.jobs = intValue(args, i++);
+                    break;
+                case "-v":
+                    options.verbose = true;
+                    break;
+                case "--progress":
+                    options.progress = true;
+                    break;
+                case "--serve":
+                    options.serve = intValue(args, i++);
+                    break;
+                case "--connect":
+                    options.connect = intValue(args, i++);
+                    break;
+                case "--root":
+                    options.root = value(args, i++);
+                    break;
+                case "--secret":
+                    options.secretFile = value(args, i++);
+                    break;
+                default:
+                    throw new UsageException(String.format("\"%s\" is not a valid option", arg));
+            }
+        }
+
+        for (String[] pair : FORBIDDEN) {
+            if (given.contains(pair[0]) && given.contains(pair[1]))
+                throw new UsageException(String.format("option \"%s\" cannot be used with the option \"%s\"", pair[0], pair[1]));
+        }
+
+        // The server takes the key of each request
+        if (options.key == null && options.serve < 0)
+            throw new UsageException("Option \"-k (--key)\" is required");
+        if (options.root != null && options.serve < 0)
+            throw new UsageException("Option \"--root\" is only used by \"--serve\"");
+        if (options.secretFile != null && options.serve < 0 && options.connect < 0)
+            throw new UsageException("Option \"--secret\" is only used by \"--serve\" and \"--connect\"");
+
+        if (options.mode != ChainedCipher.Mode.ECB) {
+            if (options.iv == null)
+                throw new UsageException(String.format("Option \"--iv\" is required by the mode %s", options.mode));
+            if (options.pipeline)
+                throw new UsageException(String.format("The mode %s cannot be used with \"-p (--pipeline)\"", options.mode));
+            if (options.mmap || options.inPlace)
+                throw new UsageException(String.format("The mode %s cannot be used with \"-m\" or \"--in-place\"", options.mode));
+        }
+
+        return options;
+    }
+
+    /**
+     * Prints the list of available options
+     * @param out Stream to print to
+     */
+    static void printUsage(PrintStream out) {
+        int width = 0;
+        for (String[] option : USAGE)
+            width = Math.max(width, option[0].length());
+
+        for (String[] option : USAGE)
+            out.println(String.format(" %-" + width + "s : %s", option[0], option[1]));
+    }
+
+    /**
+     * Gives the short name of an option given by its long name
+     */
+    private static String canonicalName(String arg) {
+        switch (arg) {
+            case "--encrypt":
+                return "-e";
+            case "--decrypt":
+                return "-d";
+            case "--input":
+                return "-i";
+            case "--output":
+                return "-o";
+            case "--list":
+                return "-l";
+            case "--recursive":
+                return "-r";
+            case "--key":
+                return "-k";
+            case "--mmap":
+                return "-m";
+            case "--threads":
+                return "-t";
+            case "--pipeline":
+                return "-p";
+            case "--jobs":
+                return "-j";
+            default:
+                return arg;
+        }
+    }
+
+    /**
+     * Gives the value following the option at the index i
+     */
+    private static String value(String[] args, int i) throws UsageException {
+        if (i + 1 >= args.length)
+            throw new UsageException(String.format("Option \"%s\" takes an operand", args[i]));
+
+        return args[i + 1];
+    }
+
+    /**
+     * Gives the integer value following the option at the index i
+     */
+    private static int intValue(String[] args, int i) throws UsageException {
+        String value = value(args, i);
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new UsageException(String.format("\"%s\" is not a valid value for \"%s\"", value, args[i]));
+        }
+    }
+
+    /**
+     * Gives the mode of operation following the option at the index i
+     */
+    private static ChainedCipher.Mode modeValue(String[] args, int i) throws UsageException {
+        String value = value(args, i);
+
+        for (ChainedCipher.Mode mode : ChainedCipher.Mode.values()) {
+            if (mode.name().equalsIgnoreCase(value))
+                return mode;
+        }
+        throw new UsageException(String.format("\"%s\" is not a valid value for \"%s\"", value, args[i]));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * ProgressReporter.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre;
+
+import java.io.PrintStream;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.pfaivre.crypto.ProgressListener;
+
+/**
+ * Prints the progress of the run (--progress) at a fixed interval
+ * The cipher operations only add the size of each chunk to a counter; the lines are printed by a timer thread,
+ * so a stalled job is seen as a line whose speed drops to zero.
+ */
+class ProgressReporter implements ProgressListener {
+    /**
+     * Time between two lines (1 s)
+     */
+    static final long INTERVAL = 1000;
+
+    /**
+     * Where the lines are printed
+     */
+    private final PrintStream out;
+
+    /**
+     * Number of bytes to process, -1 if unknown (standard input)
+     */
+    private final long total;
+
+    /**
+     * Number of bytes processed
+     */
+    private final AtomicLong done = new AtomicLong();
+
+    /**
+     * Value of System.nanoTime at the start
+     */
+    private final long start = System.nanoTime();
+
+    /**
+     * Thread printing the lines
+     */
+    private final Timer timer = new Timer("progress", true);
+
+    /**
+     * Bytes processed and time at the previous line, to give the current speed
+     */
+    private long lastDone = 0;
+    private long lastTime = this.start;
+
+    /**
+     * Instanciate a new reporter and starts printing
+     * @param out Where the lines are printed
+     * @param total Number of bytes to process, -1 if unknown
+     */
+    ProgressReporter(PrintStream out, long total) {
+        this.out = out;
+        this.total = total;
+
+        this.timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                print();
+            }
+        }, INTERVAL, INTERVAL);
+    }
+
+    @Override
+    public void progress(long bytes) {
+        this.done.addAndGet(bytes);
+    }
+
+    /**
+     * Stops the timer and prints the last line
+     */
+    void finish() {
+        this.timer.cancel();
+        this.print();
+    }
+
+    /**
+     * Prints the bytes done, the speed since the previous line and the time left at the average speed
+     */
+    synchronized void print() {
+        long now = System.nanoTime();
+        long done = this.done.get();
+
+        double speed = now > this.lastTime ? (done - this.lastDone) * 1e3 / (now - this.lastTime) : 0;
+        double average = now > this.start ? done * 1e3 / (now - this.start) : 0;
+        this.lastDone = done;
+        this.lastTime = now;
+
+        if (this.total < 0) {
+            this.out.println(String.format("Progress: %.1f MB, %.1f MB/s", done / 1e6, speed));
+        }
+        else {
+            String eta = average > 0 ? duration((long)((this.total - done) / average / 1e6)) : "--:--:--";
+            this.out.println(String.format("Progress: %.1f MB of %.1f MB (%d%%), %.1f MB/s, ETA %s",
+                    done / 1e6, this.total / 1e6, this.total > 0 ? done * 100 / this.total : 100, speed, eta));
+        }
+    }
+
+    /**
+     * Formats a duration as hours:minutes:seconds
+     * @param seconds Duration in seconds
+     */
+    static String duration(long seconds) {
+        return String.format("%02d:%02d:%02d", TimeUnit.SECONDS.toHours(seconds),
+                TimeUnit.SECONDS.toMinutes(seconds) % 60, seconds % 60);
+    }
+}
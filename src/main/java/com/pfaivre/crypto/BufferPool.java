@@ -0,0 +1,276 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * BufferPool.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of reusable heap buffers of the same size
+ * The file and stream operations take their buffers from a shared pool and give them back when they end, so a batch
+ * of many files does not allocate a new buffer for each of them. There are two shared pools, one per size class, so
+ * a request never holds much more than it asked for: the default pool of DEFAULT_BUFFER_SIZE buffers for the
+ * streams and the small chunks, and the chunk pool of CHUNK_BUFFER_SIZE buffers for the chunked file operations.
+ * forSize gives the right one.
+ * A pool keeps at most capacity free buffers: when it is empty, a new buffer is allocated (a miss), and a buffer
+ * given back to a full pool is left to the garbage collector. Requests bigger than the buffer size are always misses.
+ * A pool only takes back the buffers it handed out and which were not given back yet: any other buffer is ignored,
+ * so a buffer still used elsewhere can never be handed out to a second user.
+ * The pools are thread-safe.
+ */
+public final class BufferPool {
+    /**
+     * Size of the buffers of the default pool, the default size of the stream chunks (64 KiB)
+     */
+    public static final int DEFAULT_BUFFER_SIZE = SDES.DEFAULT_BUFFER_SIZE;
+
+    /**
+     * Size of the buffers of the chunk pool, the default size of the file chunks (1 MiB)
+     */
+    public static final int CHUNK_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Number of free buffers kept by each shared pool
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Shared pool of the streams and the small chunks
+     */
+    private static final BufferPool DEFAULT = heap(DEFAULT_BUFFER_SIZE, DEFAULT_CAPACITY);
+
+    /**
+     * Shared pool of the chunked file operations
+     */
+    private static final BufferPool CHUNKS = heap(CHUNK_BUFFER_SIZE, DEFAULT_CAPACITY);
+
+    /**
+     * Capacity of the pooled buffers
+     */
+    private final int bufferSize;
+
+    /**
+     * Free buffers
+     */
+    private final BlockingQueue<ByteBuffer> free;
+
+    /**
+     * Buffers of the pool size handed out and not given back yet, compared by identity
+     * They are weakly referenced, so a buffer never given back (a stream left open) is still collected.
+     */
+    private final Set<IssuedBuffer> issued = new HashSet<>();
+
+    /**
+     * Receives the references of the issued buffers collected without being given back
+     */
+    private final ReferenceQueue<ByteBuffer> collected = new ReferenceQueue<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Instanciate a new pool, empty at first
+     * @param bufferSize Capacity of the pooled buffers
+     * @param capacity Maximum number of free buffers kept
+     */
+    private BufferPool(int bufferSize, int capacity) {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("The buffer size must be positive");
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity must be positive");
+
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Instanciate a new pool of heap buffers
+     * @param bufferSize Capacity of the pooled buffers
+     * @param capacity Maximum number of free buffers kept
+     */
+    public static BufferPool heap(int bufferSize, int capacity) {
+        return new BufferPool(bufferSize, capacity);
+    }
+
+    /**
+     * Gives the shared pool of the streams and the small chunks, whose buffers are of DEFAULT_BUFFER_SIZE bytes
+     */
+    public static BufferPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gives the shared pool of the chunked file operations, whose buffers are of CHUNK_BUFFER_SIZE bytes
+     */
+    public static BufferPool getChunks() {
+        return CHUNKS;
+    }
+
+    /**
+     * Gives the shared pool suited to a request
+     * @param size Number of bytes needed
+     * @return The default pool up to DEFAULT_BUFFER_SIZE bytes, the chunk pool above
+     */
+    public static BufferPool forSize(int size) {
+        return size <= DEFAULT_BUFFER_SIZE ? DEFAULT : CHUNKS;
+    }
+
+    /**
+     * Takes a buffer from the pool, or allocates one
+     * @param size Number of bytes needed
+     * @return A buffer whose position is 0 and limit is size. Its capacity, and the length of its array, may be
+     * bigger.
+     */
+    public ByteBuffer acquire(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("The size cannot be negative");
+
+        ByteBuffer buffer = null;
+        if (size <= this.bufferSize)
+            buffer = this.free.poll();
+
+        if (buffer != null) {
+            this.hits.increment();
+        }
+        else {
+            this.misses.increment();
+            int capacity = Math.max(size, this.bufferSize);
+            buffer = ByteBuffer.allocate(capacity);
+        }
+
+        // Bigger buffers are never kept, no need to follow them
+        if (buffer.capacity() == this.bufferSize)
+            this.track(buffer);
+
+        // Not chained: Buffer.clear() only returns a ByteBuffer from Java 9
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    /**
+     * Gives a buffer back to the pool
+     * Buffers which were not handed out by this pool, or which were already given back, are ignored. The buffer must
+     * not be used afterwards.
+     * @param buffer Buffer given by acquire, or null
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer != null && this.untrack(buffer))
+            this.free.offer(buffer);
+    }
+
+    /**
+     * Forgets a buffer handed out by the pool without taking it back
+     * For the buffers which may still be used, for instance by a task which failed to stop: they are left to the
+     * garbage collector.
+     * @param buffer Buffer given by acquire, or null
+     */
+    public void discard(ByteBuffer buffer) {
+        if (buffer != null)
+            this.untrack(buffer);
+    }
+
+    /**
+     * Records a buffer handed out
+     */
+    private void track(ByteBuffer buffer) {
+        synchronized (this.issued) {
+            this.expunge();
+            this.issued.add(new IssuedBuffer(buffer, this.collected));
+        }
+    }
+
+    /**
+     * Forgets a buffer handed out
+     * @return true if the buffer was handed out by the pool and not given back yet
+     */
+    private boolean untrack(ByteBuffer buffer) {
+        synchronized (this.issued) {
+            this.expunge();
+            return this.issued.remove(new IssuedBuffer(buffer, null));
+        }
+    }
+
+    /**
+     * Removes the references of the buffers collected, with the lock of issued held
+     */
+    private void expunge() {
+        Reference<? extends ByteBuffer> reference;
+        while ((reference = this.collected.poll()) != null)
+            this.issued.remove(reference);
+    }
+
+    /**
+     * @return The capacity of the pooled buffers
+     */
+    public int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    /**
+     * @return The number of requests served by a free buffer
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return The number of requests which allocated a new buffer
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return The number of free buffers currently kept
+     */
+    public int getFree() {
+        return this.free.size();
+    }
+
+    /**
+     * Weak reference to an issued buffer, equal to the references to the same buffer
+     * A cleared reference is only equal to itself, which is enough to remove it from the set.
+     */
+    private static final class IssuedBuffer extends WeakReference<ByteBuffer> {
+        /**
+         * Identity hash code of the buffer, kept once it is collected
+         */
+        private final int hash;
+
+        IssuedBuffer(ByteBuffer buffer, ReferenceQueue<ByteBuffer> queue) {
+            super(buffer, queue);
+            this.hash = System.identityHashCode(buffer);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof IssuedBuffer))
+                return false;
+
+            ByteBuffer buffer = this.get();
+            return buffer != null && buffer == ((IssuedBuffer)other).get();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * BulkTransformer.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+/**
+ * Passes arrays of bytes through a 256-byte substitution table
+ * Once its tables are built, a whole S-DES key is a substitution, so encrypting an array is a byte shuffle.
+ * The instance used by SDES is chosen when this class is loaded: the Vector API implementation (VectorTransformer,
+ * compiled from src/main/java17) when the running JVM has the jdk.incubator.vector module and the implementation
+ * gives the same bytes as the scalar loop, or else the scalar loop.
+ */
+abstract class BulkTransformer {
+    /**
+     * System property disabling the Vector API implementation when set to false
+     */
+    static final String VECTOR_PROPERTY = "sdes.vector";
+
+    /**
+     * Name of the Vector API implementation, loaded by reflection so this class also runs on Java 8
+     */
+    private static final String VECTOR_CLASS = "com.pfaivre.crypto.VectorTransformer";
+
+    /**
+     * Plain loop, always available
+     */
+    static final BulkTransformer SCALAR = new BulkTransformer() {
+        @Override
+        void transform(byte[] table, byte[] src, int off, int len, byte[] dst, int dstOff) {
+            scalar(table, src, off, len, dst, dstOff);
+        }
+
+        @Override
+        String name() {
+            return "scalar";
+        }
+    };
+
+    /**
+     * Fastest implementation available on this JVM
+     */
+    static final BulkTransformer INSTANCE = select();
+
+    /**
+     * Passes a sequence of bytes through a substitution table, going forward
+     * The ranges are already checked. The destination may only overlap the source if it does not start after it.
+     * @param table Substitution table of 256 bytes
+     * @param src Array containing the bytes to transform
+     * @param off Index of the first byte to transform in src
+     * @param len Number of bytes to transform
+     * @param dst Array receiving the transformed bytes
+     * @param dstOff Index where the first transformed byte is written in dst
+     */
+    abstract void transform(byte[] table, byte[] src, int off, int len, byte[] dst, int dstOff);
+
+    /**
+     * Gives the name of the implementation, for the logs and the benchmarks
+     */
+    abstract String name();
+
+    /**
+     * Passes a sequence of bytes through a substitution table one byte after the other
+     * Also used by the vector implementation for the bytes which do not fill a whole vector.
+     */
+    static void scalar(byte[] table, byte[] src, int off, int len, byte[] dst, int dstOff) {
+        for (int i = 0 ; i < len ; i++)
+            dst[dstOff + i] = table[src[off + i] & 0xFF];
+    }
+
+    /**
+     * Loads the vector implementation, or falls back to the scalar one
+     * Any failure (older JVM, module not added with --add-modules jdk.incubator.vector, class missing from the
+     * build, different results) silently gives the scalar implementation.
+     */
+    private static BulkTransformer select() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true")))
+            return SCALAR;
+
+        try {
+            BulkTransformer vector = (BulkTransformer)Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+            if (vector.agreesWith(SCALAR))
+                return vector;
+        } catch (Exception | LinkageError e) {
+            // not available on this JVM
+        }
+        return SCALAR;
+    }
+
+    /**
+     * Checks that this implementation gives the same bytes as another one
+     * Every value goes through a table, at an unaligned offset and with a length which leaves a tail.
+     * @param other Reference implementation
+     * @return true if both give the same output
+     */
+    boolean agreesWith(BulkTransformer other) {
+        byte[] table = new byte[256];
+        for (int i = 0 ; i < table.length ; i++)
+            table[i] = (byte)(i * 167 + 13);
+
+        byte[] src = new byte[1027];
+        for (int i = 0 ; i < src.length ; i++)
+            src[i] = (byte)(i * 31 + i / 256);
+
+        byte[] expected = new byte[src.length];
+        byte[] actual = new byte[src.length];
+        other.transform(table, src, 3, src.length - 3, expected, 1);
+        this.transform(table, src, 3, src.length - 3, actual, 1);
+
+        return java.util.Arrays.equals(expected, actual);
+    }
+}
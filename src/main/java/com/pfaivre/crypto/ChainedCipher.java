@@ -0,0 +1,473 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * ChainedCipher.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Encrypts and decrypts with a mode of operation chaining the S-DES blocks
+ * Each block of S-DES is a single byte, so the initialization vector (IV) and the counter are 8-bit values:
+ * <ul>
+ *     <li>ECB: C[i] = E(P[i]), the bytes are processed on their own, as SDES does;</li>
+ *     <li>CBC: C[i] = E(P[i] xor C[i-1]), with C[-1] = IV;</li>
+ *     <li>OFB: S[i] = E(S[i-1]) with S[-1] = IV, and C[i] = P[i] xor S[i];</li>
+ *     <li>CTR: C[i] = P[i] xor E(IV + i), the counter wrapping around after 255.</li>
+ * </ul>
+ * With 8-bit blocks the key stream of OFB and CTR repeats after at most 256 bytes: these modes are meant to show
+ * how chaining works, not to protect anything.
+ *
+ * ECB, CTR and the CBC decryption only need the input to process a byte, so the files are shared between
+ * several threads in these modes. The CBC encryption and OFB are sequential.
+ * The instances are immutable and can be shared between threads.
+ */
+public class ChainedCipher {
+    /**
+     * Modes of operation
+     */
+    public enum Mode {
+        ECB, CBC, OFB, CTR
+    }
+
+    /**
+     * Size of the chunks taken by the workers when none is given (1 MiB)
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * Cipher of the blocks
+     */
+    private final SDES sdes;
+
+    /**
+     * Mode of operation
+     */
+    private final Mode mode;
+
+    /**
+     * Initialization vector, or first value of the counter in CTR
+     */
+    private final int iv;
+
+    /**
+     * Number of workers for the files, in the modes which allow it
+     */
+    private final int threads;
+
+    /**
+     * Size of the chunks taken by the workers
+     */
+    private final int chunkSize;
+
+    /**
+     * Instanciate a new chained cipher working on a single thread
+     * @param sdes Cipher of the blocks
+     * @param mode Mode of operation
+     * @param iv Initialization vector, or first value of the counter in CTR (ignored in ECB)
+     */
+    public ChainedCipher(SDES sdes, Mode mode, byte iv) {
+        this(sdes, mode, iv, 1, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Instanciate a new chained cipher with chunks of DEFAULT_CHUNK_SIZE bytes
+     * @param sdes Cipher of the blocks
+     * @param mode Mode of operation
+     * @param iv Initialization vector, or first value of the counter in CTR (ignored in ECB)
+     * @param threads Number of workers for the files, in the modes which allow it
+     */
+    public ChainedCipher(SDES sdes, Mode mode, byte iv, int threads) {
+        this(sdes, mode, iv, threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Instanciate a new chained cipher
+     * @param sdes Cipher of the blocks
+     * @param mode Mode of operation
+     * @param iv Initialization vector, or first value of the counter in CTR (ignored in ECB)
+     * @param threads Number of workers for the files, in the modes which allow it
+     * @param chunkSize Size of the chunks taken by the workers
+     */
+    public ChainedCipher(SDES sdes, Mode mode, byte iv, int threads, int chunkSize) {
+        if (sdes == null || mode == null)
+            throw new NullPointerException();
+        if (threads <= 0)
+            throw new IllegalArgumentException("The number of threads must be positive");
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("The chunk size must be positive");
+
+        this.sdes = sdes;
+        this.mode = mode;
+        this.iv = iv & 0xFF;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads an initialization vector written as 8 bits, for example "10110011"
+     * @param iv The bits of the vector, the most significant first
+     * @return The vector
+     * @throws IllegalArgumentException if the vector is not made of 8 bits
+     */
+    public static byte parseIv(String iv) {
+        if (iv == null || iv.length() != 8)
+            throw new IllegalArgumentException("The initialization vector must be of the size of 8 bits");
+
+        int value = 0;
+        for (char c : iv.toCharArray()) {
+            if (c != '0' && c != '1')
+                throw new IllegalArgumentException("The initialization vector must composed of bits (0 or 1)");
+            value = (value << 1) | (c - '0');
+        }
+        return (byte)value;
+    }
+
+    /**
+     * Tells if the files are shared between several threads in a direction
+     * @param decrypt true for the decryption, false for the encryption
+     * @return true if each byte only depends on the input, so the chunks can be processed on their own
+     */
+    public boolean isParallel(boolean decrypt) {
+        return this.mode == Mode.ECB || this.mode == Mode.CTR || (this.mode == Mode.CBC && decrypt);
+    }
+
+    // ########################################################################
+    // Arrays
+    // ########################################################################
+
+    /**
+     * Encrypts a whole message starting from the initialization vector
+     * The output may be the same array at the same offset as the input.
+     * @param src Array holding the plain message
+     * @param off Offset of the message in src
+     * @param len Length of the message
+     * @param dst Array receiving the crypted message
+     * @param dstOff Offset of the crypted message in dst
+     */
+    public void encrypt(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        checkBounds(src, off, len, dst, dstOff);
+        this.transform(false, src, off, len, dst, dstOff, this.iv);
+    }
+
+    /**
+     * Decrypts a whole message starting from the initialization vector
+     * The output may be the same array at the same offset as the input.
+     * @param src Array holding the crypted message
+     * @param off Offset of the message in src
+     * @param len Length of the message
+     * @param dst Array receiving the plain message
+     * @param dstOff Offset of the plain message in dst
+     */
+    public void decrypt(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        checkBounds(src, off, len, dst, dstOff);
+        this.transform(true, src, off, len, dst, dstOff, this.iv);
+    }
+
+    /**
+     * Checks that the ranges given to encrypt or decrypt fit in their arrays
+     */
+    private static void checkBounds(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        if (off < 0 || len < 0 || dstOff < 0 || off > src.length - len || dstOff > dst.length - len)
+            throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * Processes a part of a message, the state carrying the chaining from the previous part
+     * The state is the last crypted byte in CBC, the last byte of the key stream in OFB and the next counter in CTR.
+     * @param decrypt true to decrypt, false to encrypt
+     * @param src Array holding the input
+     * @param off Offset of the input in src
+     * @param len Length of the input
+     * @param dst Array receiving the output
+     * @param dstOff Offset of the output in dst
+     * @param state State left by the previous part, the initialization vector for the first one
+     * @return The state to give to the next part
+     */
+    private int transform(boolean decrypt, byte[] src, int off, int len, byte[] dst, int dstOff, int state) {
+        switch (this.mode) {
+            case ECB:
+                if (decrypt)
+                    this.sdes.decrypt(src, off, len, dst, dstOff);
+                else
+                    this.sdes.encrypt(src, off, len, dst, dstOff);
+                return state;
+
+            case CBC:
+                if (decrypt) {
+                    for (int i = 0 ; i < len ; i++) {
+                        // Kept before the output may overwrite it
+                        int crypted = src[off + i] & 0xFF;
+                        dst[dstOff + i] = (byte)(this.sdes.decrypt((byte)crypted) ^ state);
+                        state = crypted;
+                    }
+                }
+                else {
+                    for (int i = 0 ; i < len ; i++) {
+                        state = this.sdes.encrypt((byte)(src[off + i] ^ state)) & 0xFF;
+                        dst[dstOff + i] = (byte)state;
+                    }
+                }
+                return state;
+
+            case OFB:
+                for (int i = 0 ; i < len ; i++) {
+                    state = this.sdes.encrypt((byte)state) & 0xFF;
+                    dst[dstOff + i] = (byte)(src[off + i] ^ state);
+                }
+                return state;
+
+            case CTR:
+                for (int i = 0 ; i < len ; i++) {
+                    dst[dstOff + i] = (byte)(src[off + i] ^ this.sdes.encrypt((byte)state));
+                    state = (state + 1) & 0xFF;
+                }
+                return state;
+
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    // ########################################################################
+    // Streams
+    // ########################################################################
+
+    /**
+     * Encrypts a stream until its end
+     * The output stream is neither flushed nor closed.
+     * @param input Stream to read
+     * @param output Stream receiving the crypted bytes
+     * @param bufferSize Size of the chunks read from the input
+     */
+    public void encryptStream(InputStream input, OutputStream output, int bufferSize) throws IOException {
+        this.recordStream(input, output, bufferSize, false, null);
+    }
+
+    /**
+     * Encrypts a stream until its end, and reports its progress
+     * The output stream is neither flushed nor closed.
+     * @param input Stream to read
+     * @param output Stream receiving the crypted bytes
+     * @param bufferSize Size of the chunks read from the input
+     * @param progress Called after each chunk, or null
+     */
+    public void encryptStream(InputStream input, OutputStream output, int bufferSize, ProgressListener progress) throws IOException {
+        this.recordStream(input, output, bufferSize, false, progress);
+    }
+
+    /**
+     * Decrypts a stream until its end
+     * The output stream is neither flushed nor closed.
+     * @param input Stream to read
+     * @param output Stream receiving the plain bytes
+     * @param bufferSize Size of the chunks read from the input
+     */
+    public void decryptStream(InputStream input, OutputStream output, int bufferSize) throws IOException {
+        this.recordStream(input, output, bufferSize, true, null);
+    }
+
+    /**
+     * Decrypts a stream until its end, and reports its progress
+     * The output stream is neither flushed nor closed.
+     * @param input Stream to read
+     * @param output Stream receiving the plain bytes
+     * @param bufferSize Size of the chunks read from the input
+     * @param progress Called after each chunk, or null
+     */
+    public void decryptStream(InputStream input, OutputStream output, int bufferSize, ProgressListener progress) throws IOException {
+        this.recordStream(input, output, bufferSize, true, progress);
+    }
+
+    /**
+     * Processes a stream and records the operation in CipherMetrics
+     * @param input Stream to read
+     * @param output Stream receiving the output
+     * @param bufferSize Size of the chunks read from the input
+     * @param decrypt true to decrypt, false to encrypt
+     * @param progress Called after each chunk, or null
+     */
+    private void recordStream(InputStream input, OutputStream output, int bufferSize, boolean decrypt,
+                              ProgressListener progress) throws IOException {
+        long start = System.nanoTime();
+        long bytes;
+
+        try {
+            bytes = this.transformStream(input, output, bufferSize, decrypt, progress);
+        } catch (Throwable e) {
+            CipherMetrics.getInstance().failed(null, decrypt, e);
+            throw e;
+        }
+
+        CipherMetrics.getInstance().completed(null, decrypt, bytes, start);
+    }
+
+    /**
+     * Processes a stream chunk after chunk, carrying the state from one chunk to the next
+     * @param input Stream to read
+     * @param output Stream receiving the output
+     * @param bufferSize Size of the chunks read from the input
+     * @param decrypt true to decrypt, false to encrypt
+     * @param progress Called after each chunk, or null
+     * @return The number of bytes processed
+     */
+    private long transformStream(InputStream input, OutputStream output, int bufferSize, boolean decrypt,
+                                 ProgressListener progress) throws IOException {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("The buffer size must be positive");
+
+        BufferPool pool = BufferPool.forSize(bufferSize);
+        ByteBuffer pooled = pool.acquire(bufferSize);
+        byte[] buffer = pooled.array();
+        int state = this.iv;
+        long bytes = 0;
+        int read;
+
+        try {
+            while ((read = input.read(buffer, 0, bufferSize)) != -1) {
+                state = this.transform(decrypt, buffer, 0, read, buffer, 0, state);
+                output.write(buffer, 0, read);
+                bytes += read;
+
+                if (progress != null)
+                    progress.progress(read);
+            }
+        } finally {
+            pool.release(pooled);
+        }
+        return bytes;
+    }
+
+    // ########################################################################
+    // Files
+    // ########################################################################
+
+    /**
+     * Encrypts a file, on several threads when the mode allows it
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     */
+    public void encryptFile(File inputFile, File outputFile) throws IOException {
+        this.transformFile(inputFile, outputFile, false, null);
+    }
+
+    /**
+     * Encrypts a file, on several threads when the mode allows it, and reports its progress
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param progress Called after each chunk, from the workers when there are several, or null
+     */
+    public void encryptFile(File inputFile, File outputFile, ProgressListener progress) throws IOException {
+        this.transformFile(inputFile, outputFile, false, progress);
+    }
+
+    /**
+     * Decrypts a file, on several threads when the mode allows it
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     */
+    public void decryptFile(File inputFile, File outputFile) throws IOException {
+        this.transformFile(inputFile, outputFile, true, null);
+    }
+
+    /**
+     * Decrypts a file, on several threads when the mode allows it, and reports its progress
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param progress Called after each chunk, from the workers when there are several, or null
+     */
+    public void decryptFile(File inputFile, File outputFile, ProgressListener progress) throws IOException {
+        this.transformFile(inputFile, outputFile, true, progress);
+    }
+
+    /**
+     * Processes a file sequentially, or shares its chunks between the workers, and records the operation in CipherMetrics
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param decrypt true to decrypt, false to encrypt
+     * @param progress Called after each chunk, or null
+     */
+    private void transformFile(File inputFile, File outputFile, boolean decrypt, ProgressListener progress) throws IOException {
+        long start = System.nanoTime();
+        long size;
+
+        try {
+            if (this.threads > 1 && this.isParallel(decrypt))
+                size = this.transformFileParallel(inputFile, outputFile, decrypt, progress);
+            else
+                size = this.transformFileSequential(inputFile, outputFile, decrypt, progress);
+        } catch (Throwable e) {
+            CipherMetrics.getInstance().failed(inputFile, decrypt, e);
+            throw e;
+        }
+
+        CipherMetrics.getInstance().completed(inputFile, decrypt, size, start);
+    }
+
+    /**
+     * Processes a file from its start to its end on the calling thread
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param decrypt true to decrypt, false to encrypt
+     * @param progress Called after each chunk, or null
+     * @return The size of the file
+     */
+    private long transformFileSequential(File inputFile, File outputFile, boolean decrypt,
+                                         ProgressListener progress) throws IOException {
+        InputStream input = new FileInputStream(inputFile);
+        try {
+            OutputStream output = new FileOutputStream(outputFile);
+            try {
+                return this.transformStream(input, output, this.chunkSize, decrypt, progress);
+            } finally {
+                output.close();
+            }
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Shares the chunks of a file between the workers of ParallelFileCipher and waits for all of them
+     * The state at the start of a chunk is found from its position: the counter in CTR, and the crypted byte just
+     * before it in CBC.
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param decrypt true to decrypt, false to encrypt
+     * @param progress Called after each chunk, or null
+     * @return The size of the file
+     */
+    private long transformFileParallel(File inputFile, File outputFile, final boolean decrypt,
+                                       ProgressListener progress) throws IOException {
+        return ParallelFileCipher.transformChunks(inputFile, outputFile, this.threads, this.chunkSize,
+                new ParallelFileCipher.ChunkTransform() {
+            @Override
+            public void transform(FileChannel input, byte[] buffer, int length, long position) throws IOException {
+                int state = iv;
+
+                if (mode == Mode.CTR) {
+                    state = (int)((iv + position) & 0xFF);
+                }
+                else if (mode == Mode.CBC && position > 0) {
+                    byte[] previous = new byte[1];
+                    SDES.readFully(input, previous, 1, position - 1);
+                    state = previous[0] & 0xFF;
+                }
+
+                ChainedCipher.this.transform(decrypt, buffer, 0, length, buffer, 0, state);
+            }
+        }, progress);
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * CipherClient.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Connection to a CipherServer running on the same machine
+ * The requests are sent one after the other on the same connection. An error of the server on a request (unknown
+ * file, invalid key) is thrown as an IOException and the connection stays usable; a broken connection closes the
+ * client.
+ * Every request carries the secret of the server, read from the file it wrote at startup. A wrong secret is reported
+ * as an IOException, and the server closes the connection.
+ * A client must not be used by several threads at once: the methods wait for each other.
+ */
+public class CipherClient implements Closeable {
+    /**
+     * Size of the chunks read from the streams given to the client (64 KiB)
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Connection to the server
+     */
+    private final Socket socket;
+
+    private final DataInputStream input;
+    private final DataOutputStream output;
+
+    /**
+     * Secret of the server, sent with each request
+     */
+    private final byte[] secret;
+
+    /**
+     * Instanciate a new client connected to a server of the loopback interface
+     * @param port Port the server listens on
+     * @param secretFile File the server wrote its secret to
+     */
+    public CipherClient(int port, File secretFile) throws IOException {
+        this.secret = Files.readAllBytes(secretFile.toPath());
+        if (this.secret.length != CipherProtocol.SECRET_SIZE)
+            throw new IOException(String.format("%s does not hold the secret of a server", secretFile));
+
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        this.socket.setTcpNoDelay(true);
+        this.input = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+        this.output = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+    }
+
+    /**
+     * Has the server encrypt a file
+     * The paths are sent as absolute paths, the server reading and writing the files itself. They must be inside the
+     * root directory of the server.
+     * @param key 10-bit key, the first bit being the most significant one. For example 0b0110100111
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @return The size of the file
+     */
+    public long encryptFile(int key, File inputFile, File outputFile) throws IOException {
+        return this.transformFile(key, false, inputFile, outputFile);
+    }
+
+    /**
+     * Has the server decrypt a file
+     * The paths are sent as absolute paths, the server reading and writing the files itself. They must be inside the
+     * root directory of the server.
+     * @param key 10-bit key, the first bit being the most significant one. For example 0b0110100111
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @return The size of the file
+     */
+    public long decryptFile(int key, File inputFile, File outputFile) throws IOException {
+        return this.transformFile(key, true, inputFile, outputFile);
+    }
+
+    /**
+     * Sends everything read from a stream until its end to the server, and writes its encryption to another stream
+     * The streams are neither flushed nor closed.
+     * @param key 10-bit key, the first bit being the most significant one. For example 0b0110100111
+     * @param input Stream to read the plain bytes from
+     * @param output Stream to write the encrypted bytes to
+     * @return The number of bytes encrypted
+     */
+    public long encryptStream(int key, InputStream input, OutputStream output) throws IOException {
+        return this.transformStream(key, false, input, output);
+    }
+
+    /**
+     * Sends everything read from a stream until its end to the server, and writes its decryption to another stream
+     * The streams are neither flushed nor closed.
+     * @param key 10-bit key, the first bit being the most significant one. For example 0b0110100111
+     * @param input Stream to read the encrypted bytes from
+     * @param output Stream to write the plain bytes to
+     * @return The number of bytes decrypted
+     */
+    public long decryptStream(int key, InputStream input, OutputStream output) throws IOException {
+        return this.transformStream(key, true, input, output);
+    }
+
+    /**
+     * Sends a file request and reads its response
+     * @param key Key of the request
+     * @param decrypt true to decrypt, false to encrypt
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @return The size of the file
+     */
+    private synchronized long transformFile(int key, boolean decrypt, File inputFile, File outputFile) throws IOException {
+        checkKey(key);
+
+        try {
+            this.writeHeader(CipherProtocol.FILE, decrypt, key);
+            this.output.writeUTF(inputFile.getAbsolutePath());
+            this.output.writeUTF(outputFile.getAbsolutePath());
+            this.output.flush();
+
+            this.readStatus();
+            return this.input.readLong();
+        } catch (ServerException e) {
+            throw e;
+        } catch (IOException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a stream request and reads its response
+     * The payload is sent by another thread while this one reads the response: the server answers each frame as soon
+     * as it has read it, so sending all of it before reading would fill the buffers of the connection in both ways.
+     * The first of the two threads to fail closes the connection, which also stops the other one.
+     * @param key Key of the request
+     * @param decrypt true to decrypt, false to encrypt
+     * @param input Stream to send
+     * @param output Stream receiving the response
+     * @return The number of bytes of the response
+     */
+    private synchronized long transformStream(int key, boolean decrypt, final InputStream input, OutputStream output)
+            throws IOException {
+        checkKey(key);
+
+        final AtomicReference<IOException> failure = new AtomicReference<>();
+        Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                CipherProtocol.FrameOutputStream frames = new CipherProtocol.FrameOutputStream(CipherClient.this.output);
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+
+                try {
+                    while ((n = input.read(buffer)) != -1)
+                        frames.write(buffer, 0, n);
+                    frames.finish();
+                } catch (IOException e) {
+                    abort(failure, e);
+                }
+            }
+        }, "sdes-client-sender");
+        sender.setDaemon(true);
+
+        this.writeHeader(CipherProtocol.STREAM, decrypt, key);
+        sender.start();
+
+        long bytes = 0;
+        ServerException refused = null;
+        try {
+            this.readStatus();
+
+            CipherProtocol.FrameInputStream frames = new CipherProtocol.FrameInputStream(this.input);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = frames.read(buffer, 0, buffer.length)) != -1) {
+                output.write(buffer, 0, n);
+                bytes += n;
+            }
+        } catch (ServerException e) {
+            // The server reads the whole payload anyway, the sender ends normally
+            refused = e;
+        } catch (IOException e) {
+            abort(failure, e);
+        }
+
+        try {
+            sender.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(failure, new InterruptedIOException("Interrupted while sending the payload"));
+        }
+
+        // A server refusing the secret closes the connection, which also makes the sender fail: its error comes first
+        if (refused != null)
+            throw refused;
+        if (failure.get() != null)
+            throw failure.get();
+        return bytes;
+    }
+
+    /**
+     * Writes the beginning of a request, common to all the kinds
+     */
+    private void writeHeader(byte kind, boolean decrypt, int key) throws IOException {
+        this.output.writeByte(kind);
+        this.output.write(this.secret);
+        this.output.writeBoolean(decrypt);
+        this.output.writeShort(key);
+    }
+
+    /**
+     * Reads the status of a response
+     * @throws ServerException with the message of the server if it is an error
+     */
+    private void readStatus() throws IOException {
+        byte status = this.input.readByte();
+        if (status == CipherProtocol.ERROR)
+            throw new ServerException(this.input.readUTF());
+        if (status != CipherProtocol.OK)
+            throw new IOException(String.format("Unknown status %d", status));
+    }
+
+    /**
+     * Keeps the first failure of a request and closes the connection
+     * @param failure First failure of the request
+     * @param e Failure to keep if it is the first one
+     */
+    private void abort(AtomicReference<IOException> failure, IOException e) {
+        failure.compareAndSet(null, e);
+        try {
+            this.close();
+        } catch (IOException ignored) {
+            // Already broken
+        }
+    }
+
+    /**
+     * Checks a key before sending it, as the server would refuse it
+     */
+    private static void checkKey(int key) {
+        if (key < 0 || key >= 1024)
+            throw new IllegalArgumentException("The key must be of the size of 10 bits");
+    }
+
+    /**
+     * Closes the connection
+     */
+    @Override
+    public void close() throws IOException {
+        this.socket.close();
+    }
+
+    /**
+     * Error reported by the server for a request, after which the connection is still usable
+     */
+    private static final class ServerException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ServerException(String message) {
+            super(message);
+        }
+    }
+}
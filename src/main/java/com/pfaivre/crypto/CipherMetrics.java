@@ -0,0 +1,252 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * CipherMetrics.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters of the file and stream operations of the whole JVM
+ * Each operation is recorded once, when it ends: a few LongAdder increments and two calls to System.nanoTime, so
+ * the counters are always on. Nothing is recorded per chunk or per byte.
+ * The counters can be read directly, through listeners called after each operation, or through JMX once
+ * registerMBean has been called.
+ */
+public final class CipherMetrics implements CipherMetricsMBean {
+    /**
+     * Receives the operations as they end
+     * Listeners are called on the thread which ran the operation, so they must be quick and must not throw.
+     */
+    public interface Listener {
+        /**
+         * Called after a successful operation
+         * @param file File which was read, null for a stream
+         * @param decrypt true for a decryption, false for an encryption
+         * @param bytes Number of bytes processed
+         * @param nanos Duration of the operation in nanoseconds
+         */
+        void completed(File file, boolean decrypt, long bytes, long nanos);
+
+        /**
+         * Called after a failed operation, before the exception is thrown to the caller
+         * @param file File which was read, null for a stream
+         * @param decrypt true for a decryption, false for an encryption
+         * @param e Cause of the failure: an IOException, or any runtime exception or error thrown during the operation
+         */
+        void failed(File file, boolean decrypt, Throwable e);
+    }
+
+    /**
+     * Name under which registerMBean registers the counters
+     */
+    public static final String OBJECT_NAME = "com.pfaivre.crypto:type=CipherMetrics";
+
+    /**
+     * Number of buckets of the latency histogram: the last one holds everything above 2^30 microseconds (about 18 min)
+     */
+    private static final int LATENCY_BUCKETS = 32;
+
+    /**
+     * Counters of the JVM
+     */
+    private static final CipherMetrics INSTANCE = new CipherMetrics();
+
+    private final LongAdder bytesEncrypted = new LongAdder();
+    private final LongAdder bytesDecrypted = new LongAdder();
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Time spent in the successful operations, in nanoseconds
+     */
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * Number of operations per duration, see getLatencyHistogram
+     */
+    private final LongAdder[] latency = new LongAdder[LATENCY_BUCKETS];
+
+    /**
+     * Listeners called after each operation
+     */
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private CipherMetrics() {
+        for (int i = 0 ; i < LATENCY_BUCKETS ; i++)
+            this.latency[i] = new LongAdder();
+    }
+
+    /**
+     * Gives the counters of the JVM
+     */
+    public static CipherMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the counters in the platform MBean server under OBJECT_NAME
+     * Does nothing if they are already registered.
+     * @throws JMException if the MBean server refuses them
+     */
+    public static void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+
+        synchronized (CipherMetrics.class) {
+            if (!server.isRegistered(name))
+                server.registerMBean(INSTANCE, name);
+        }
+    }
+
+    /**
+     * Adds a listener called after each operation
+     */
+    public void addListener(Listener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added by addListener
+     */
+    public void removeListener(Listener listener) {
+        this.listeners.remove(listener);
+    }
+
+    // ########################################################################
+    // Recording
+    // ########################################################################
+
+    /**
+     * Records a successful operation
+     * @param file File which was read, null for a stream
+     * @param decrypt true for a decryption, false for an encryption
+     * @param bytes Number of bytes processed
+     * @param start Value of System.nanoTime when the operation started
+     */
+    void completed(File file, boolean decrypt, long bytes, long start) {
+        long duration = System.nanoTime() - start;
+
+        if (decrypt)
+            this.bytesDecrypted.add(bytes);
+        else
+            this.bytesEncrypted.add(bytes);
+        this.operations.increment();
+        this.nanos.add(duration);
+        this.latency[bucket(duration)].increment();
+
+        for (Listener listener : this.listeners)
+            listener.completed(file, decrypt, bytes, duration);
+    }
+
+    /**
+     * Records a failed operation
+     * @param file File which was read, null for a stream
+     * @param decrypt true for a decryption, false for an encryption
+     * @param e Cause of the failure
+     */
+    void failed(File file, boolean decrypt, Throwable e) {
+        this.failures.increment();
+
+        for (Listener listener : this.listeners)
+            listener.failed(file, decrypt, e);
+    }
+
+    /**
+     * Gives the bucket of the histogram of a duration
+     * @param nanos Duration in nanoseconds
+     * @return The index i such as the duration is below 2^i microseconds
+     */
+    private static int bucket(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), LATENCY_BUCKETS - 1);
+    }
+
+    // ########################################################################
+    // Reading
+    // ########################################################################
+
+    @Override
+    public long getBytesEncrypted() {
+        return this.bytesEncrypted.sum();
+    }
+
+    @Override
+    public long getBytesDecrypted() {
+        return this.bytesDecrypted.sum();
+    }
+
+    @Override
+    public long getOperations() {
+        return this.operations.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return this.failures.sum();
+    }
+
+    @Override
+    public double getThroughput() {
+        long nanos = this.nanos.sum();
+        if (nanos == 0)
+            return 0;
+
+        return (this.getBytesEncrypted() + this.getBytesDecrypted()) * 1e3 / nanos;
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] histogram = new long[LATENCY_BUCKETS];
+        for (int i = 0 ; i < LATENCY_BUCKETS ; i++)
+            histogram[i] = this.latency[i].sum();
+        return histogram;
+    }
+
+    @Override
+    public double latencyPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("The percentile must be between 0 and 100");
+
+        long[] histogram = this.getLatencyHistogram();
+        long total = 0;
+        for (long count : histogram)
+            total += count;
+        if (total == 0)
+            return 0;
+
+        long rank = (long)Math.ceil(total * percentile / 100);
+        long seen = 0;
+        int i = 0;
+        while (i < LATENCY_BUCKETS - 1 && (seen += histogram[i]) < rank)
+            i++;
+
+        // Upper bound of the bucket: 2^i microseconds
+        return (1L << i) / 1e3;
+    }
+
+    @Override
+    public void reset() {
+        this.bytesEncrypted.reset();
+        this.bytesDecrypted.reset();
+        this.operations.reset();
+        this.failures.reset();
+        this.nanos.reset();
+        for (LongAdder bucket : this.latency)
+            bucket.reset();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * CipherMetricsMBean.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+/**
+ * Management interface of CipherMetrics, as seen in JConsole or VisualVM
+ */
+public interface CipherMetricsMBean {
+    /**
+     * @return The number of bytes encrypted by the file and stream operations
+     */
+    long getBytesEncrypted();
+
+    /**
+     * @return The number of bytes decrypted by the file and stream operations
+     */
+    long getBytesDecrypted();
+
+    /**
+     * @return The number of file and stream operations which succeeded
+     */
+    long getOperations();
+
+    /**
+     * @return The number of file and stream operations which failed
+     */
+    long getFailures();
+
+    /**
+     * @return The bytes processed per second spent in the operations, in MB/s
+     */
+    double getThroughput();
+
+    /**
+     * @return The number of operations per duration: the index i counts the ones which took less than 2^i microseconds
+     */
+    long[] getLatencyHistogram();
+
+    /**
+     * Gives an upper bound of a percentile of the durations, read from the histogram
+     * @param percentile Percentile between 0 and 100, e.g. 99
+     * @return The duration in milliseconds, 0 if no operation was recorded
+     */
+    double latencyPercentile(double percentile);
+
+    /**
+     * Sets all the counters back to zero
+     */
+    void reset();
+}
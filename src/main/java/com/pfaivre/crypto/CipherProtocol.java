@@ -0,0 +1,160 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * CipherProtocol.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Requests and responses exchanged by CipherClient and CipherServer
+ * A connection carries any number of requests, one after the other, each followed by its response. The integers
+ * are big-endian, as written by DataOutputStream.
+ *
+ * Request:
+ *   byte    kind        STREAM or FILE
+ *   bytes   secret      the SECRET_SIZE bytes the server wrote to its secret file at startup
+ *   boolean decrypt     true to decrypt, false to encrypt
+ *   short   key         10-bit key, the first bit being the most significant one
+ *   STREAM: frames      the payload, see below
+ *   FILE:   UTF, UTF    absolute paths of the file to read and of the file to write, inside the root directory
+ *                       of the server
+ *
+ * Response:
+ *   byte    status      OK or ERROR
+ *   ERROR:  UTF         message of the error
+ *   STREAM: frames      the transformed payload
+ *   FILE:   long        size of the file
+ *
+ * A payload is sent as frames: an int length followed by as many bytes, at most MAX_FRAME_SIZE, and an empty frame
+ * after the last one. Neither side needs to know the size of the payload in advance, and the server answers each
+ * frame as soon as it has read it, so a payload of any size goes through with a bounded memory.
+ *
+ * A request with a wrong secret gets an ERROR response, after which the server closes the connection.
+ */
+final class CipherProtocol {
+    /**
+     * Kinds of requests
+     */
+    static final byte STREAM = 1;
+    static final byte FILE = 2;
+
+    /**
+     * Statuses of the responses
+     */
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    /**
+     * Maximum size of a frame (1 MiB), also the size of the chunks processed by the server
+     */
+    static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+    /**
+     * Size of the secret carried by the requests (256 bits)
+     */
+    static final int SECRET_SIZE = 32;
+
+    private CipherProtocol() {
+    }
+
+    /**
+     * Reads the payload of a request or a response, frame by frame
+     * The end of the stream is the empty frame. The stream under it is neither read further nor closed.
+     */
+    static final class FrameInputStream extends InputStream {
+        private final DataInputStream input;
+
+        /**
+         * Number of bytes left in the current frame, -1 after the empty frame
+         */
+        private int remaining = 0;
+
+        FrameInputStream(DataInputStream input) {
+            this.input = input;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return this.read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+
+            while (this.remaining == 0) {
+                int length = this.input.readInt();
+                if (length < 0 || length > MAX_FRAME_SIZE)
+                    throw new IOException(String.format("Invalid frame of %d bytes", length));
+                this.remaining = length == 0 ? -1 : length;
+            }
+            if (this.remaining < 0)
+                return -1;
+
+            int n = this.input.read(b, off, Math.min(len, this.remaining));
+            if (n == -1)
+                throw new EOFException("The connection has been closed in the middle of a frame");
+
+            this.remaining -= n;
+            return n;
+        }
+
+        /**
+         * Reads and drops the frames left, up to the empty frame
+         */
+        void skipAll() throws IOException {
+            byte[] buffer = new byte[8192];
+            while (this.read(buffer, 0, buffer.length) != -1)
+                ;
+        }
+    }
+
+    /**
+     * Writes a payload as frames, one or more per call to write
+     * finish must be called after the last byte. The stream under it is neither flushed nor closed.
+     */
+    static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream output;
+
+        FrameOutputStream(DataOutputStream output) {
+            this.output = output;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.write(new byte[] {(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, MAX_FRAME_SIZE);
+                this.output.writeInt(n);
+                this.output.write(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        /**
+         * Writes the empty frame ending the payload and flushes it
+         */
+        void finish() throws IOException {
+            this.output.writeInt(0);
+            this.output.flush();
+        }
+    }
+}
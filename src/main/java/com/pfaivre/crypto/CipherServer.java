@@ -0,0 +1,321 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * CipherServer.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running server encrypting and decrypting on behalf of other processes
+ * Starting a JVM costs more than encrypting a small file, so scripts running many short jobs can send them to a
+ * single server instead, which keeps the instances of SDES, their tables and the compiled code from one request to
+ * the next. See CipherProtocol for the requests, and CipherClient to send them.
+ * The server only listens on the loopback interface, where every local user can reach it, so each request must carry
+ * a secret drawn at startup. The secret is written to a file only the owner of the server can read: whoever can read
+ * it can use the server with the rights of its owner. The files of the FILE requests must be inside a root directory
+ * given at startup, which should not be writable by other users; without one, only the STREAM requests are served.
+ * Each connection gets its own thread, a virtual one on Java 21 and later. Its requests are processed one after
+ * the other, the payloads chunk by chunk.
+ */
+public class CipherServer implements Closeable {
+    /**
+     * Socket accepting the connections
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * Runs the connections: a virtual thread per connection, or a pool of platform threads
+     */
+    private final ExecutorService executor;
+
+    /**
+     * true if the executor starts a virtual thread per connection
+     */
+    private final boolean virtual;
+
+    /**
+     * Connections currently open, closed with the server
+     */
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Secret carried by every request
+     */
+    private final byte[] secret = new byte[CipherProtocol.SECRET_SIZE];
+
+    /**
+     * File the secret is written to, deleted with the server
+     */
+    private final File secretFile;
+
+    /**
+     * Real path of the directory holding the files of the FILE requests, null if they are refused
+     */
+    private final Path root;
+
+    /**
+     * Instanciate a new server listening on the loopback interface
+     * A new secret is drawn and written to secretFile, replacing it, readable and writable by the owner only. The
+     * connections are only accepted once serve is called.
+     * @param port Port to listen on, 0 for any free port (see getPort)
+     * @param secretFile File receiving the secret, to be read by the clients
+     * @param root Directory holding the files the FILE requests may read and write, or null to refuse them
+     */
+    public CipherServer(int port, File secretFile, File root) throws IOException {
+        this.root = root != null ? root.toPath().toRealPath() : null;
+        if (this.root != null && !Files.isDirectory(this.root))
+            throw new IOException(String.format("%s is not a directory", root));
+
+        new SecureRandom().nextBytes(this.secret);
+        this.secretFile = secretFile;
+        writeSecret(secretFile.toPath(), this.secret);
+
+        ExecutorService virtualExecutor = FileCipherService.newVirtualThreadExecutor();
+
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.virtual = virtualExecutor != null;
+        this.executor = this.virtual ? virtualExecutor : Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Writes the secret to a new file, readable and writable by its owner only
+     * The file is created with its permissions rather than restricted afterwards, so it is never readable by others.
+     * @param file File to replace
+     * @param secret Secret to write
+     */
+    private static void writeSecret(Path file, byte[] secret) throws IOException {
+        Files.deleteIfExists(file);
+
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        else {
+            File created = Files.createFile(file).toFile();
+            if (!(created.setReadable(false, false) && created.setReadable(true, true)
+                    && created.setWritable(false, false) && created.setWritable(true, true)))
+                throw new IOException(String.format("Unable to restrict the permissions of %s", file));
+        }
+
+        Files.write(file, secret);
+    }
+
+    /**
+     * @return The port the server listens on
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return true if each connection runs on its own virtual thread
+     */
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    /**
+     * Accepts connections until the server is closed
+     */
+    public void serve() throws IOException {
+        while (!this.serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (IOException e) {
+                if (this.serverSocket.isClosed())
+                    return;
+                throw e;
+            }
+
+            this.connections.add(socket);
+            this.executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        handle(socket);
+                    } catch (IOException e) {
+                        // The client left in the middle of a request, or sent something else than a request
+                    } finally {
+                        connections.remove(socket);
+                        try {
+                            socket.close();
+                        } catch (IOException e) {
+                            // Nothing left to do with it
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Answers the requests of a connection until the client closes it
+     * @param socket Connection to the client
+     */
+    private void handle(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        while (true) {
+            int kind = input.read();
+            if (kind == -1)
+                return;
+
+            byte[] secret = new byte[CipherProtocol.SECRET_SIZE];
+            input.readFully(secret);
+            if (!MessageDigest.isEqual(secret, this.secret)) {
+                // The connection is closed: nothing else is read from a client which does not know the secret
+                error(output, new IOException("Invalid secret"));
+                output.flush();
+                return;
+            }
+
+            boolean decrypt = input.readBoolean();
+            int key = input.readShort();
+
+            if (kind == CipherProtocol.STREAM)
+                this.handleStream(input, output, decrypt, key);
+            else if (kind == CipherProtocol.FILE)
+                this.handleFile(input, output, decrypt, key);
+            else
+                throw new IOException(String.format("Unknown request %d", kind));
+
+            output.flush();
+        }
+    }
+
+    /**
+     * Answers a request carrying its payload: each frame is transformed and sent back as soon as it is read
+     * @param input Stream of the request, after its key
+     * @param output Stream of the response
+     * @param decrypt true to decrypt, false to encrypt
+     * @param key Key of the request
+     */
+    private void handleStream(DataInputStream input, DataOutputStream output, boolean decrypt, int key) throws IOException {
+        CipherProtocol.FrameInputStream frames = new CipherProtocol.FrameInputStream(input);
+
+        SDES sdes;
+        try {
+            sdes = SDES.forKey(key);
+        } catch (IllegalArgumentException e) {
+            // The payload is read anyway, so the connection can carry the next request
+            frames.skipAll();
+            error(output, e);
+            return;
+        }
+
+        output.writeByte(CipherProtocol.OK);
+        CipherProtocol.FrameOutputStream result = new CipherProtocol.FrameOutputStream(output);
+        if (decrypt)
+            sdes.decryptStream(frames, result, CipherProtocol.MAX_FRAME_SIZE);
+        else
+            sdes.encryptStream(frames, result, CipherProtocol.MAX_FRAME_SIZE);
+        result.finish();
+    }
+
+    /**
+     * Answers a request giving the paths of the files: the server reads and writes them itself
+     * A file which cannot be processed, or outside of the root directory, gives an error response, the connection
+     * stays usable.
+     * @param input Stream of the request, after its key
+     * @param output Stream of the response
+     * @param decrypt true to decrypt, false to encrypt
+     * @param key Key of the request
+     */
+    private void handleFile(DataInputStream input, DataOutputStream output, boolean decrypt, int key) throws IOException {
+        String inputPath = input.readUTF();
+        String outputPath = input.readUTF();
+        File inputFile;
+        File outputFile;
+
+        try {
+            inputFile = this.resolve(inputPath);
+            outputFile = this.resolve(outputPath);
+
+            SDES sdes = SDES.forKey(key);
+            if (decrypt)
+                sdes.decryptFile(inputFile, outputFile);
+            else
+                sdes.encryptFile(inputFile, outputFile);
+        } catch (IOException | IllegalArgumentException e) {
+            error(output, e);
+            return;
+        }
+
+        output.writeByte(CipherProtocol.OK);
+        output.writeLong(outputFile.length());
+    }
+
+    /**
+     * Gives the real path of a file of a FILE request, checking that it is inside the root directory
+     * The links and the .. of the path are resolved first, so none of them can lead out of the root.
+     * @param path Absolute path given by the client. The file itself may not exist yet.
+     * @throws IOException if FILE requests are refused, or if the file is outside of the root directory
+     */
+    private File resolve(String path) throws IOException {
+        if (this.root == null)
+            throw new IOException("The server has no root directory, it does not read or write files");
+
+        Path file = Paths.get(path);
+        if (!file.isAbsolute() || file.getParent() == null)
+            throw new IOException(String.format("%s is not an absolute path to a file", path));
+
+        Path real = file.getParent().toRealPath().resolve(file.getFileName());
+        if (Files.exists(real, LinkOption.NOFOLLOW_LINKS))
+            real = real.toRealPath();
+
+        if (!real.startsWith(this.root) || real.equals(this.root))
+            throw new IOException(String.format("%s is outside of the root directory of the server", path));
+        return real.toFile();
+    }
+
+    /**
+     * Writes an error response
+     * @param output Stream of the response
+     * @param e Cause of the error
+     */
+    private static void error(DataOutputStream output, Exception e) throws IOException {
+        output.writeByte(CipherProtocol.ERROR);
+        output.writeUTF(e.getMessage() != null ? e.getMessage() : e.toString());
+    }
+
+    /**
+     * Stops accepting connections and closes the ones open
+     * The requests in progress fail.
+     */
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        for (Socket socket : this.connections)
+            socket.close();
+        this.executor.shutdown();
+        Files.deleteIfExists(this.secretFile.toPath());
+    }
+}
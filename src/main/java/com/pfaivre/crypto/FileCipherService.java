@@ -0,0 +1,222 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * FileCipherService.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encrypts and decrypts many files at the same time, one task per file
+ * With many small files, the time goes to opening and closing them rather than to the cipher, so the way to go
+ * faster is to have many of them in flight. On Java 21 and later, each file gets its own virtual thread, so
+ * thousands of them can wait for the file system without holding as many platform threads. On older JVMs, the
+ * tasks share a pool of at most MAX_PLATFORM_THREADS platform threads.
+ * At most concurrency tasks run at once: submitting more waits for one of them to end, which keeps the number of
+ * pending tasks bounded whatever the number of files.
+ */
+public class FileCipherService implements Closeable {
+    /**
+     * Number of tasks in flight when none is given
+     */
+    public static final int DEFAULT_CONCURRENCY = 256;
+
+    /**
+     * Maximum number of platform threads when the virtual threads are not available
+     */
+    public static final int MAX_PLATFORM_THREADS = 64;
+
+    /**
+     * System property disabling the virtual threads when set to false
+     */
+    static final String VIRTUAL_THREADS_PROPERTY = "sdes.virtualThreads";
+
+    /**
+     * Cipher of the files
+     */
+    private final SDES sdes;
+
+    /**
+     * Runs the tasks: a virtual thread per task, or a pool of platform threads
+     */
+    private final ExecutorService executor;
+
+    /**
+     * true if the executor starts a virtual thread per task
+     */
+    private final boolean virtual;
+
+    /**
+     * One permit per task in flight
+     */
+    private final Semaphore permits;
+
+    /**
+     * Instanciate a new service with at most DEFAULT_CONCURRENCY tasks in flight
+     * @param sdes Cipher of the files
+     */
+    public FileCipherService(SDES sdes) {
+        this(sdes, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Instanciate a new service
+     * @param sdes Cipher of the files
+     * @param concurrency Maximum number of tasks in flight
+     */
+    public FileCipherService(SDES sdes, int concurrency) {
+        if (concurrency <= 0)
+            throw new IllegalArgumentException("The concurrency must be positive");
+
+        ExecutorService virtualExecutor = newVirtualThreadExecutor();
+
+        this.sdes = sdes;
+        this.virtual = virtualExecutor != null;
+        this.executor = this.virtual
+                ? virtualExecutor
+                : Executors.newFixedThreadPool(Math.min(concurrency, MAX_PLATFORM_THREADS));
+        this.permits = new Semaphore(concurrency);
+    }
+
+    /**
+     * Gives an executor starting a virtual thread per task, if the JVM has them
+     * Executors.newVirtualThreadPerTaskExecutor (Java 21) is looked up by reflection, so this class also runs
+     * on older JVMs. Also used by CipherServer for its connections.
+     * @return The executor, or null if the virtual threads are not available or disabled
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        if (!Boolean.parseBoolean(System.getProperty(VIRTUAL_THREADS_PROPERTY, "true")))
+            return null;
+
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService)factory.invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if each task runs on its own virtual thread
+     */
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    /**
+     * Encrypts a file in a task of its own
+     * Waits while concurrency tasks are already in flight.
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @return The number of bytes encrypted, or the IOException of the task
+     */
+    public CompletableFuture<Long> encryptFile(final File inputFile, final File outputFile) {
+        return this.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws IOException {
+                return transformFile(inputFile, outputFile, false);
+            }
+        });
+    }
+
+    /**
+     * Decrypts a file in a task of its own
+     * Waits while concurrency tasks are already in flight.
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @return The number of bytes decrypted, or the IOException of the task
+     */
+    public CompletableFuture<Long> decryptFile(final File inputFile, final File outputFile) {
+        return this.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws IOException {
+                return transformFile(inputFile, outputFile, true);
+            }
+        });
+    }
+
+    /**
+     * Runs any task under the concurrency limit of the service
+     * Waits while concurrency tasks are already in flight.
+     * @param task Task to run
+     * @return The result of the task, or its exception or error
+     */
+    public <T> CompletableFuture<T> submit(final Callable<T> task) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        this.permits.acquireUninterruptibly();
+        try {
+            this.executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        result.complete(task.call());
+                    } catch (Throwable e) {
+                        // Errors too, or the callers waiting on the future would wait forever
+                        result.completeExceptionally(e);
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rejected: the service is closed
+            this.permits.release();
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Processes a file on the thread of the task
+     * The file is read until its end by chunks of SDES.DEFAULT_BUFFER_SIZE bytes, with a 64 KiB buffer of the
+     * default BufferPool, so each task in flight holds at most one such buffer whatever the size of its file.
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param decrypt true to decrypt, false to encrypt
+     * @return The size of the file
+     */
+    private long transformFile(File inputFile, File outputFile, boolean decrypt) throws IOException {
+        if (decrypt)
+            this.sdes.decryptFile(inputFile, outputFile);
+        else
+            this.sdes.encryptFile(inputFile, outputFile);
+
+        return outputFile.length();
+    }
+
+    /**
+     * Stops accepting tasks and waits for the ones in flight
+     */
+    @Override
+    public void close() throws IOException {
+        this.executor.shutdown();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (this.executor.awaitTermination(1, TimeUnit.MINUTES))
+                    break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+}
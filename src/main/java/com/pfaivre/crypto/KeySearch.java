@@ -0,0 +1,258 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * KeySearch.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exhaustive search of S-DES keys
+ * With a key of 10 bits, there are only 1024 keys to try. They are shared between several workers, and each key is
+ * tried with the bit-packed primitives, so nothing is allocated per key.
+ * The keys are given as ints of 10 bits, the first bit of the key being the most significant one
+ * (see SDES.keyToString).
+ * An instance keeps its workers between searches, it must be closed once it is no longer used.
+ */
+public class KeySearch implements Closeable {
+    /**
+     * Number of possible keys
+     */
+    public static final int KEY_COUNT = 1024;
+
+    /**
+     * Gives a score to a candidate plaintext, the higher the more likely
+     * It is called from several threads at once.
+     */
+    public interface Scorer {
+        /**
+         * @param plaintext Array containing the candidate plaintext
+         * @param length Number of bytes of the candidate, from the index 0
+         * @return The score of the candidate
+         */
+        double score(byte[] plaintext, int length);
+    }
+
+    /**
+     * Number of parts the keys are shared into
+     */
+    private final int threads;
+
+    /**
+     * Workers running all the parts but the one of the calling thread
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Instanciate a new search using all the available processors
+     */
+    public KeySearch() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Instanciate a new search
+     * @param threads Number of threads trying keys, the calling thread included
+     */
+    public KeySearch(int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("The number of threads must be positive");
+
+        this.threads = threads;
+        this.executor = threads > 1 ? Executors.newFixedThreadPool(threads - 1) : null;
+    }
+
+    /**
+     * Finds all the keys encrypting a known plaintext into a known ciphertext
+     * @param plaintext Known plain bytes
+     * @param ciphertext Encrypted bytes, of the same length
+     * @return The matching keys, in ascending order
+     */
+    public int[] findKeys(final byte[] plaintext, final byte[] ciphertext) {
+        checkPair(plaintext, ciphertext);
+
+        final boolean[] matches = new boolean[KEY_COUNT];
+
+        this.run(new Part() {
+            @Override
+            public void run(int first, int step) {
+                for (int key = first ; key < KEY_COUNT ; key += step)
+                    matches[key] = isKey(key, plaintext, ciphertext);
+            }
+        });
+
+        int count = 0;
+        for (boolean match : matches)
+            if (match)
+                count++;
+
+        int[] keys = new int[count];
+        for (int key = 0, i = 0 ; key < KEY_COUNT ; key++)
+            if (matches[key])
+                keys[i++] = key;
+
+        return keys;
+    }
+
+    /**
+     * Finds a key encrypting a known plaintext into a known ciphertext
+     * The search stops as soon as a key is found, which is then not necessarily the lowest matching one.
+     * @param plaintext Known plain bytes
+     * @param ciphertext Encrypted bytes, of the same length
+     * @return A matching key, or -1 if there is none
+     */
+    public int findFirstKey(final byte[] plaintext, final byte[] ciphertext) {
+        checkPair(plaintext, ciphertext);
+
+        final AtomicInteger found = new AtomicInteger(-1);
+
+        this.run(new Part() {
+            @Override
+            public void run(int first, int step) {
+                for (int key = first ; key < KEY_COUNT && found.get() == -1 ; key += step) {
+                    if (isKey(key, plaintext, ciphertext))
+                        found.compareAndSet(-1, key);
+                }
+            }
+        });
+
+        return found.get();
+    }
+
+    /**
+     * Decrypts a ciphertext with every key and ranks the keys by the score of the plaintext they give
+     * @param ciphertext Encrypted bytes
+     * @param scorer Scorer of the candidate plaintexts
+     * @param count Maximum number of keys to return
+     * @return The best keys, the best first
+     */
+    public int[] rankKeys(final byte[] ciphertext, final Scorer scorer, int count) {
+        final double[] scores = new double[KEY_COUNT];
+
+        this.run(new Part() {
+            @Override
+            public void run(int first, int step) {
+                byte[] candidate = new byte[ciphertext.length];
+
+                for (int key = first ; key < KEY_COUNT ; key += step) {
+                    int subkeys = SDESBits.generateKeys(key);
+                    int K1 = subkeys >> 8;
+                    int K2 = subkeys & 0xFF;
+
+                    for (int i = 0 ; i < ciphertext.length ; i++)
+                        candidate[i] = (byte)SDESBits.decrypt(ciphertext[i], K1, K2);
+
+                    scores[key] = scorer.score(candidate, ciphertext.length);
+                }
+            }
+        });
+
+        List<Integer> keys = new ArrayList<>(KEY_COUNT);
+        for (int key = 0 ; key < KEY_COUNT ; key++)
+            keys.add(key);
+
+        // Best score first, the lowest key first in case of a tie
+        Collections.sort(keys, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int byScore = Double.compare(scores[b], scores[a]);
+                return byScore != 0 ? byScore : Integer.compare(a, b);
+            }
+        });
+
+        int[] best = new int[Math.min(Math.max(count, 0), KEY_COUNT)];
+        for (int i = 0 ; i < best.length ; i++)
+            best[i] = keys.get(i);
+
+        return best;
+    }
+
+    /**
+     * Stops the workers
+     */
+    @Override
+    public void close() {
+        if (this.executor != null)
+            this.executor.shutdown();
+    }
+
+    /**
+     * Tells whether a key encrypts a plaintext into a ciphertext
+     * The comparison stops at the first byte which does not match.
+     */
+    static boolean isKey(int key, byte[] plaintext, byte[] ciphertext) {
+        int subkeys = SDESBits.generateKeys(key);
+        int K1 = subkeys >> 8;
+        int K2 = subkeys & 0xFF;
+
+        for (int i = 0 ; i < plaintext.length ; i++) {
+            if ((byte)SDESBits.encrypt(plaintext[i], K1, K2) != ciphertext[i])
+                return false;
+        }
+
+        return true;
+    }
+
+    private static void checkPair(byte[] plaintext, byte[] ciphertext) {
+        if (plaintext.length != ciphertext.length)
+            throw new IllegalArgumentException("The plaintext and the ciphertext must have the same length");
+    }
+
+    /**
+     * Share of the keys tried by one thread: the keys first, first + step, first + 2 * step...
+     */
+    private interface Part {
+        void run(int first, int step);
+    }
+
+    /**
+     * Runs a part on each worker and one on the calling thread, then waits for all of them
+     */
+    private void run(final Part part) {
+        final int step = this.threads;
+        List<Future<?>> results = new ArrayList<>(step - 1);
+
+        for (int i = 1 ; i < step ; i++) {
+            final int first = i;
+            results.add(this.executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    part.run(first, step);
+                    return null;
+                }
+            }));
+        }
+
+        part.run(0, step);
+
+        try {
+            for (Future<?> result : results)
+                result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the workers", e);
+        } finally {
+            for (Future<?> result : results)
+                result.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * MultiKeyCipher.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+/**
+ * Encrypts and decrypts the same bytes under many keys at once
+ * Gives one result per key, for instance the encryption of a plaintext under all the 1024 keys, without building
+ * an instance of SDES and going over the input once per key.
+ * Two layouts of the results are available:
+ * - one array per key: the input is cut into tiles small enough to stay in the L1 cache, and each tile is passed
+ *   through the table of every key with the bulk transformer (Vector API when available). The input is read from
+ *   memory once, and each output is written sequentially.
+ * - interleaved: the results of all the keys for a byte follow each other. The tables are transposed into a
+ *   256 x keys table whose row b holds the result of the byte b under each key, so each input byte is read once and
+ *   its whole row copied at once.
+ * An instance can be used by several threads at once.
+ */
+public class MultiKeyCipher {
+    /**
+     * Size of the tiles of the input passed through every table before the next one (16 KiB)
+     */
+    static final int TILE_SIZE = 16 * 1024;
+
+    /**
+     * Keys, in the order of the results
+     */
+    private final int[] keys;
+
+    /**
+     * Substitution tables of each key
+     */
+    private final byte[][] encryptTables;
+    private final byte[][] decryptTables;
+
+    /**
+     * Transposed tables: the result of the byte b under the key of index k is at b * keys.length + k
+     */
+    private final byte[] encryptRows;
+    private final byte[] decryptRows;
+
+    /**
+     * Instanciate a new cipher for the given keys
+     * The tables come from SDES.forKey, so the keys already used elsewhere cost nothing.
+     * @param keys 10-bit keys, the first bit being the most significant one. A key can be given more than once.
+     * @throws IllegalArgumentException if there is no key or if a key does not fit in 10 bits
+     */
+    public MultiKeyCipher(int... keys) {
+        if (keys.length == 0)
+            throw new IllegalArgumentException("At least one key is needed");
+
+        int count = keys.length;
+        this.keys = keys.clone();
+        this.encryptTables = new byte[count][];
+        this.decryptTables = new byte[count][];
+        this.encryptRows = new byte[256 * count];
+        this.decryptRows = new byte[256 * count];
+
+        for (int k = 0 ; k < count ; k++) {
+            SDES sdes = SDES.forKey(this.keys[k]);
+            this.encryptTables[k] = sdes.table(false);
+            this.decryptTables[k] = sdes.table(true);
+
+            for (int b = 0 ; b < 256 ; b++) {
+                this.encryptRows[b * count + k] = this.encryptTables[k][b];
+                this.decryptRows[b * count + k] = this.decryptTables[k][b];
+            }
+        }
+    }
+
+    /**
+     * Instanciate a new cipher for all the 1024 keys, in ascending order
+     */
+    public static MultiKeyCipher allKeys() {
+        int[] keys = new int[KeySearch.KEY_COUNT];
+        for (int key = 0 ; key < keys.length ; key++)
+            keys[key] = key;
+
+        return new MultiKeyCipher(keys);
+    }
+
+    /**
+     * @return The keys, in the order of the results
+     */
+    public int[] getKeys() {
+        return this.keys.clone();
+    }
+
+    // ########################################################################
+    // One array per key
+    // ########################################################################
+
+    /**
+     * Encrypts an array under every key
+     * @param src Array containing the plain bytes
+     * @return The encrypted bytes under each key, in the order of the keys
+     */
+    public byte[][] encrypt(byte[] src) {
+        byte[][] dst = new byte[this.keys.length][src.length];
+        transform(this.encryptTables, src, 0, src.length, dst, 0);
+        return dst;
+    }
+
+    /**
+     * Decrypts an array under every key
+     * @param src Array containing the encrypted bytes
+     * @return The plain bytes under each key, in the order of the keys
+     */
+    public byte[][] decrypt(byte[] src) {
+        byte[][] dst = new byte[this.keys.length][src.length];
+        transform(this.decryptTables, src, 0, src.length, dst, 0);
+        return dst;
+    }
+
+    /**
+     * Encrypts a sequence of bytes under every key
+     * @param src Array containing the plain bytes
+     * @param off Index of the first byte to encrypt in src
+     * @param len Number of bytes to encrypt
+     * @param dst One array per key, in the order of the keys, receiving the encrypted bytes. They must not overlap src.
+     * @param dstOff Index where the first encrypted byte is written in each array of dst
+     */
+    public void encrypt(byte[] src, int off, int len, byte[][] dst, int dstOff) {
+        transform(this.encryptTables, src, off, len, dst, dstOff);
+    }
+
+    /**
+     * Decrypts a sequence of bytes under every key
+     * @param src Array containing the encrypted bytes
+     * @param off Index of the first byte to decrypt in src
+     * @param len Number of bytes to decrypt
+     * @param dst One array per key, in the order of the keys, receiving the plain bytes. They must not overlap src.
+     * @param dstOff Index where the first plain byte is written in each array of dst
+     */
+    public void decrypt(byte[] src, int off, int len, byte[][] dst, int dstOff) {
+        transform(this.decryptTables, src, off, len, dst, dstOff);
+    }
+
+    /**
+     * Passes a sequence of bytes through every table, tile by tile
+     * @param tables encryptTables or decryptTables
+     * @param src Array containing the bytes to transform
+     * @param off Index of the first byte to transform in src
+     * @param len Number of bytes to transform
+     * @param dst One array per table receiving the transformed bytes
+     * @param dstOff Index where the first transformed byte is written in each array of dst
+     */
+    private static void transform(byte[][] tables, byte[] src, int off, int len, byte[][] dst, int dstOff) {
+        if (dst.length != tables.length)
+            throw new IllegalArgumentException(String.format("%d arrays given for %d keys", dst.length, tables.length));
+        checkRange(src, off, len);
+        for (byte[] array : dst) {
+            if (array == src)
+                throw new IllegalArgumentException("The destination arrays cannot be the source array");
+            checkRange(array, dstOff, len);
+        }
+
+        for (int tile = 0 ; tile < len ; tile += TILE_SIZE) {
+            int tileLength = Math.min(TILE_SIZE, len - tile);
+            for (int k = 0 ; k < tables.length ; k++)
+                BulkTransformer.INSTANCE.transform(tables[k], src, off + tile, tileLength, dst[k], dstOff + tile);
+        }
+    }
+
+    // ########################################################################
+    // Interleaved
+    // ########################################################################
+
+    /**
+     * Encrypts a sequence of bytes under every key, the results of a byte following each other
+     * The encryption of src[off + i] under the key of index k is written at dstOff + i * keys + k.
+     * @param src Array containing the plain bytes
+     * @param off Index of the first byte to encrypt in src
+     * @param len Number of bytes to encrypt
+     * @param dst Array receiving len * keys encrypted bytes. It must not overlap src.
+     * @param dstOff Index where the first encrypted byte is written in dst
+     */
+    public void encryptInterleaved(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        transformInterleaved(this.encryptRows, src, off, len, dst, dstOff);
+    }
+
+    /**
+     * Decrypts a sequence of bytes under every key, the results of a byte following each other
+     * The decryption of src[off + i] under the key of index k is written at dstOff + i * keys + k.
+     * @param src Array containing the encrypted bytes
+     * @param off Index of the first byte to decrypt in src
+     * @param len Number of bytes to decrypt
+     * @param dst Array receiving len * keys plain bytes. It must not overlap src.
+     * @param dstOff Index where the first plain byte is written in dst
+     */
+    public void decryptInterleaved(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        transformInterleaved(this.decryptRows, src, off, len, dst, dstOff);
+    }
+
+    /**
+     * Copies the row of the transposed table of each byte
+     * @param rows encryptRows or decryptRows
+     * @param src Array containing the bytes to transform
+     * @param off Index of the first byte to transform in src
+     * @param len Number of bytes to transform
+     * @param dst Array receiving the rows
+     * @param dstOff Index where the first row is written in dst
+     */
+    private void transformInterleaved(byte[] rows, byte[] src, int off, int len, byte[] dst, int dstOff) {
+        int count = this.keys.length;
+
+        checkRange(src, off, len);
+        if ((long)len * count > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(String.format("%d bytes under %d keys do not fit in an array", len, count));
+        checkRange(dst, dstOff, len * count);
+        if (dst == src)
+            throw new IllegalArgumentException("The destination array cannot be the source array");
+
+        for (int i = 0 ; i < len ; i++)
+            System.arraycopy(rows, (src[off + i] & 0xFF) * count, dst, dstOff + i * count, count);
+    }
+
+    /**
+     * Checks that a range is within an array
+     */
+    private static void checkRange(byte[] array, int off, int len) {
+        if (off < 0 || len < 0 || off > array.length - len)
+            throw new IndexOutOfBoundsException(String.format("Range [%d, %d) out of array of length %d",
+                    off, off + len, array.length));
+    }
+}
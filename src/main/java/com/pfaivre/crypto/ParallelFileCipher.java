@@ -0,0 +1,255 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * ParallelFileCipher.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encrypts and decrypts files on several threads
+ * S-DES does not chain the blocks, so each chunk of a file can be processed on its own.
+ * The workers take the chunks one after the other, and read and write each of them at its offset.
+ */
+public class ParallelFileCipher {
+    /**
+     * Size of the chunks taken by the workers when none is given (1 MiB)
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * Cipher used for every chunk
+     */
+    private final SDES sdes;
+
+    /**
+     * Number of workers
+     */
+    private final int threads;
+
+    /**
+     * Size of the chunks taken by the workers
+     */
+    private final int chunkSize;
+
+    /**
+     * Instanciate a new parallel cipher with chunks of DEFAULT_CHUNK_SIZE bytes
+     * @param sdes Cipher used for every chunk
+     * @param threads Number of workers
+     */
+    public ParallelFileCipher(SDES sdes, int threads) {
+        this(sdes, threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Instanciate a new parallel cipher
+     * @param sdes Cipher used for every chunk
+     * @param threads Number of workers
+     * @param chunkSize Size of the chunks taken by the workers
+     */
+    public ParallelFileCipher(SDES sdes, int threads, int chunkSize) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("The number of threads must be positive");
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("The chunk size must be positive");
+
+        this.sdes = sdes;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Encrypts a file
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     */
+    public void encryptFile(File inputFile, File outputFile) throws IOException {
+        this.transformFile(inputFile, outputFile, false, null);
+    }
+
+    /**
+     * Encrypts a file and reports its progress
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param progress Called by the workers after each chunk, or null
+     */
+    public void encryptFile(File inputFile, File outputFile, ProgressListener progress) throws IOException {
+        this.transformFile(inputFile, outputFile, false, progress);
+    }
+
+    /**
+     * Decrypts a file
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     */
+    public void decryptFile(File inputFile, File outputFile) throws IOException {
+        this.transformFile(inputFile, outputFile, true, null);
+    }
+
+    /**
+     * Decrypts a file and reports its progress
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param progress Called by the workers after each chunk, or null
+     */
+    public void decryptFile(File inputFile, File outputFile, ProgressListener progress) throws IOException {
+        this.transformFile(inputFile, outputFile, true, progress);
+    }
+
+    /**
+     * Processes a file and records the operation in CipherMetrics
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param decrypt true to decrypt, false to encrypt
+     * @param progress Called after each chunk, or null
+     */
+    private void transformFile(File inputFile, File outputFile, boolean decrypt, ProgressListener progress) throws IOException {
+        long start = System.nanoTime();
+        long size;
+
+        try {
+            size = this.transformChunks(inputFile, outputFile, decrypt, progress);
+        } catch (Throwable e) {
+            CipherMetrics.getInstance().failed(inputFile, decrypt, e);
+            throw e;
+        }
+
+        CipherMetrics.getInstance().completed(inputFile, decrypt, size, start);
+    }
+
+    /**
+     * Shares the chunks of a file between the workers with the cipher of this instance
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param decrypt true to decrypt, false to encrypt
+     * @param progress Called after each chunk, or null
+     * @return The size of the file
+     */
+    private long transformChunks(File inputFile, File outputFile, final boolean decrypt,
+                                 ProgressListener progress) throws IOException {
+        return transformChunks(inputFile, outputFile, this.threads, this.chunkSize, new ChunkTransform() {
+            @Override
+            public void transform(FileChannel input, byte[] buffer, int length, long position) {
+                if (decrypt)
+                    sdes.decrypt(buffer, 0, length, buffer, 0);
+                else
+                    sdes.encrypt(buffer, 0, length, buffer, 0);
+            }
+        }, progress);
+    }
+
+    /**
+     * Transformation of a chunk, run by the workers of transformChunks
+     * It is called from several threads at once.
+     */
+    interface ChunkTransform {
+        /**
+         * Transforms a chunk in place
+         * @param input Channel of the file read, for the transformations which need the bytes before the chunk
+         * @param buffer Bytes of the chunk
+         * @param length Number of bytes of the chunk, from the index 0
+         * @param position Offset of the chunk in the file
+         */
+        void transform(FileChannel input, byte[] buffer, int length, long position) throws IOException;
+    }
+
+    /**
+     * Shares the chunks of a file between workers and waits for all of them
+     * Each worker reads a chunk at its offset, transforms it and writes it at the same offset in the output.
+     * Also used by ChainedCipher for the modes whose chunks can be processed apart.
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param threads Maximum number of workers
+     * @param chunkSize Size of the chunks taken by the workers
+     * @param transform Transformation of each chunk
+     * @param progress Called after each chunk, or null
+     * @return The size of the file
+     */
+    static long transformChunks(File inputFile, File outputFile, int threads, final int chunkSize,
+                                final ChunkTransform transform, final ProgressListener progress) throws IOException {
+        final FileChannel input = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ);
+        FileChannel openedOutput = null;
+        ExecutorService executor = null;
+
+        try {
+            openedOutput = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            final FileChannel output = openedOutput;
+
+            final long size = input.size();
+            final AtomicLong nextChunk = new AtomicLong();
+            int workers = (int)Math.max(1, Math.min(threads, (size + chunkSize - 1) / chunkSize));
+
+            executor = Executors.newFixedThreadPool(workers);
+            List<Future<Void>> results = new ArrayList<>();
+
+            for (int w = 0 ; w < workers ; w++) {
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        int bufferSize = (int)Math.min(chunkSize, size);
+                        BufferPool pool = BufferPool.forSize(bufferSize);
+                        ByteBuffer pooled = pool.acquire(bufferSize);
+                        byte[] buffer = pooled.array();
+
+                        try {
+                            long position;
+                            while ((position = nextChunk.getAndIncrement() * chunkSize) < size) {
+                                int length = (int)Math.min(chunkSize, size - position);
+
+                                SDES.readFully(input, buffer, length, position);
+                                transform.transform(input, buffer, length, position);
+                                SDES.writeFully(output, buffer, length, position);
+
+                                if (progress != null)
+                                    progress.progress(length);
+                            }
+                        } finally {
+                            pool.release(pooled);
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException)
+                        throw (IOException)e.getCause();
+                    throw new IOException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the workers");
+                }
+            }
+
+            return size;
+        } finally {
+            if (executor != null)
+                executor.shutdownNow();
+            input.close();
+            if (openedOutput != null)
+                openedOutput.close();
+        }
+    }
+}
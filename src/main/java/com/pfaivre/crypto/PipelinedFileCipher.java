@@ -0,0 +1,311 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * PipelinedFileCipher.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Encrypts and decrypts files with overlapped reads, transformations and writes
+ * A reader thread fills the chunks one after the other, transform workers process them, and a writer thread writes
+ * each of them at its offset. While a chunk is being written, the next ones are already read or transformed, so
+ * the storage and the CPU work at the same time, which hides the latency of slow or remote storage.
+ * The stages are connected by bounded queues, and a fixed number of buffers go round between them: the memory used
+ * does not depend on the size of the file.
+ */
+public class PipelinedFileCipher {
+    /**
+     * Size of the chunks when none is given (1 MiB)
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * A buffer going round the stages, with the place of its content in the file
+     * The array of a pooled buffer may be bigger than the last chunk of a file.
+     */
+    private static final class Chunk {
+        final ByteBuffer pooled;
+        final byte[] data;
+        long position;
+        int length;
+
+        Chunk(ByteBuffer pooled) {
+            this.pooled = pooled;
+            this.data = pooled.array();
+        }
+    }
+
+    /**
+     * Sent by the reader after the last chunk, once per worker, then by each worker to the writer
+     */
+    private static final Chunk END = new Chunk(ByteBuffer.allocate(0));
+
+    /**
+     * Cipher used for every chunk
+     */
+    private final SDES sdes;
+
+    /**
+     * Number of transform workers
+     */
+    private final int workers;
+
+    /**
+     * Size of the chunks
+     */
+    private final int chunkSize;
+
+    /**
+     * Number of buffers going round the stages
+     */
+    private final int buffers;
+
+    /**
+     * Pool of the buffers: the default one for chunks of its size, otherwise one of this pipeline with buffers of
+     * exactly chunkSize bytes, so the memory bound holds whatever the chunk size
+     */
+    private final BufferPool pool;
+
+    /**
+     * Instanciate a new pipeline with chunks of DEFAULT_CHUNK_SIZE bytes and two buffers per worker plus two
+     * @param sdes Cipher used for every chunk
+     * @param workers Number of transform workers
+     */
+    public PipelinedFileCipher(SDES sdes, int workers) {
+        this(sdes, workers, DEFAULT_CHUNK_SIZE, 2 * workers + 2);
+    }
+
+    /**
+     * Instanciate a new pipeline
+     * @param sdes Cipher used for every chunk
+     * @param workers Number of transform workers
+     * @param chunkSize Size of the chunks
+     * @param buffers Number of buffers going round the stages, which bounds the memory used to buffers * chunkSize.
+     * They are taken from a BufferPool and given back at the end of each file.
+     */
+    public PipelinedFileCipher(SDES sdes, int workers, int chunkSize, int buffers) {
+        if (workers <= 0)
+            throw new IllegalArgumentException("The number of workers must be positive");
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("The chunk size must be positive");
+        if (buffers <= 0)
+            throw new IllegalArgumentException("The number of buffers must be positive");
+
+        this.sdes = sdes;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+        this.buffers = buffers;
+        this.pool = chunkSize == BufferPool.getChunks().getBufferSize()
+                ? BufferPool.getChunks()
+                : BufferPool.heap(chunkSize, buffers);
+    }
+
+    /**
+     * Encrypts a file
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     */
+    public void encryptFile(File inputFile, File outputFile) throws IOException {
+        this.transformFile(inputFile, outputFile, false, null);
+    }
+
+    /**
+     * Encrypts a file and reports its progress
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param progress Called by the writer after each chunk, or null
+     */
+    public void encryptFile(File inputFile, File outputFile, ProgressListener progress) throws IOException {
+        this.transformFile(inputFile, outputFile, false, progress);
+    }
+
+    /**
+     * Decrypts a file
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     */
+    public void decryptFile(File inputFile, File outputFile) throws IOException {
+        this.transformFile(inputFile, outputFile, true, null);
+    }
+
+    /**
+     * Decrypts a file and reports its progress
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param progress Called by the writer after each chunk, or null
+     */
+    public void decryptFile(File inputFile, File outputFile, ProgressListener progress) throws IOException {
+        this.transformFile(inputFile, outputFile, true, progress);
+    }
+
+    /**
+     * Processes a file and records the operation in CipherMetrics
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param decrypt true to decrypt, false to encrypt
+     * @param progress Called after each chunk, or null
+     */
+    private void transformFile(File inputFile, File outputFile, boolean decrypt, ProgressListener progress) throws IOException {
+        long start = System.nanoTime();
+        long size;
+
+        try {
+            size = this.runPipeline(inputFile, outputFile, decrypt, progress);
+        } catch (Throwable e) {
+            CipherMetrics.getInstance().failed(inputFile, decrypt, e);
+            throw e;
+        }
+
+        CipherMetrics.getInstance().completed(inputFile, decrypt, size, start);
+    }
+
+    /**
+     * Starts the reader, the workers and the writer, and waits for all of them
+     * If a stage fails, the others are interrupted and its exception is thrown.
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param decrypt true to decrypt, false to encrypt
+     * @param progress Called after each chunk, or null
+     * @return The size of the file
+     */
+    private long runPipeline(File inputFile, File outputFile, final boolean decrypt,
+                             final ProgressListener progress) throws IOException {
+        final FileChannel input = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ);
+        FileChannel openedOutput = null;
+        ExecutorService executor = null;
+        List<Chunk> chunks = new ArrayList<>(this.buffers);
+        boolean released = false;
+
+        try {
+            openedOutput = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            final FileChannel output = openedOutput;
+            final long size = input.size();
+
+            // Free buffers -> reader -> read chunks -> workers -> transformed chunks -> writer -> free buffers
+            final BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(this.buffers);
+            final BlockingQueue<Chunk> read = new ArrayBlockingQueue<>(this.buffers + this.workers);
+            final BlockingQueue<Chunk> transformed = new ArrayBlockingQueue<>(this.buffers + this.workers);
+            int bufferSize = (int)Math.min(this.chunkSize, size);
+            for (int i = 0 ; i < this.buffers ; i++) {
+                Chunk chunk = new Chunk(this.pool.acquire(bufferSize));
+                chunks.add(chunk);
+                free.add(chunk);
+            }
+
+            executor = Executors.newFixedThreadPool(this.workers + 2);
+            CompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+
+            stages.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException, InterruptedException {
+                    for (long position = 0 ; position < size ; ) {
+                        Chunk chunk = free.take();
+                        chunk.position = position;
+                        chunk.length = (int)Math.min(chunkSize, size - position);
+
+                        SDES.readFully(input, chunk.data, chunk.length, position);
+                        read.put(chunk);
+                        position += chunk.length;
+                    }
+
+                    for (int w = 0 ; w < workers ; w++)
+                        read.put(END);
+                    return null;
+                }
+            });
+
+            for (int w = 0 ; w < this.workers ; w++) {
+                stages.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws InterruptedException {
+                        Chunk chunk;
+                        while ((chunk = read.take()) != END) {
+                            if (decrypt)
+                                sdes.decrypt(chunk.data, 0, chunk.length, chunk.data, 0);
+                            else
+                                sdes.encrypt(chunk.data, 0, chunk.length, chunk.data, 0);
+                            transformed.put(chunk);
+                        }
+
+                        transformed.put(END);
+                        return null;
+                    }
+                });
+            }
+
+            stages.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException, InterruptedException {
+                    int running = workers;
+                    while (running > 0) {
+                        Chunk chunk = transformed.take();
+                        if (chunk == END) {
+                            running--;
+                            continue;
+                        }
+
+                        SDES.writeFully(output, chunk.data, chunk.length, chunk.position);
+                        free.put(chunk);
+
+                        if (progress != null)
+                            progress.progress(chunk.length);
+                    }
+                    return null;
+                }
+            });
+
+            for (int i = 0 ; i < this.workers + 2 ; i++) {
+                try {
+                    stages.take().get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException)
+                        throw (IOException)e.getCause();
+                    throw new IOException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the pipeline");
+                }
+            }
+
+            // Every buffer is back once the writer is done
+            for (Chunk chunk : chunks)
+                this.pool.release(chunk.pooled);
+            released = true;
+
+            return size;
+        } finally {
+            // Also unblocks the stages waiting on a queue when another one failed
+            if (executor != null)
+                executor.shutdownNow();
+            // After a failure a stage may still be using its buffer: they are left to the garbage collector
+            if (!released)
+                for (Chunk chunk : chunks)
+                    this.pool.discard(chunk.pooled);
+            input.close();
+            if (openedOutput != null)
+                openedOutput.close();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * ProgressListener.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+/**
+ * Follows the progress of a long file or stream operation
+ * It is called once per chunk, never per byte, so its cost does not depend on the size of the data.
+ * The operations working on several threads call it from all of them, so it must be thread-safe.
+ */
+public interface ProgressListener {
+    /**
+     * Called after each chunk has been written
+     * @param bytes Number of bytes processed since the previous call
+     */
+    void progress(long bytes);
+}
@@ -0,0 +1,1291 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * SDES.java
+ * Creation : 30/03/2016
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * S-DES algorithm implementation
+ * This class can handle the encryption and decryption of a file
+ * Instances are immutable: all their state is computed by the constructor and held in final fields,
+ * so a single instance per key can be shared between threads without any synchronization.
+ */
+public final class SDES {
+    /**
+     * Size of the chunks read and written by the file operations when none is given (64 KiB)
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Size of the regions mapped at once by the memory-mapped file operations (64 MiB)
+     */
+    static final int MAP_REGION_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Size of the chunks rewritten at once by the in-place file operations when none is given (1 MiB)
+     */
+    public static final int DEFAULT_IN_PLACE_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * Suffix of the journal kept beside a file while it is transformed in place
+     */
+    public static final String JOURNAL_SUFFIX = ".sdes-journal";
+
+    /**
+     * Suffix of the temporary file written before replacing the journal
+     */
+    public static final String JOURNAL_TMP_SUFFIX = JOURNAL_SUFFIX + ".tmp";
+
+    /**
+     * Magic number at the start of a journal ("SDJ1")
+     */
+    private static final int JOURNAL_MAGIC = 0x53444A31;
+
+    /**
+     * Size of the journal header: magic, operation, key fingerprint, offset and length of the chunk
+     */
+    private static final int JOURNAL_HEADER_SIZE = 4 + 1 + 4 + 8 + 4;
+
+    /**
+     * Main key
+     */
+    private final boolean[] master_key;
+
+    /**
+     * Subkey 1
+     */
+    private final boolean[] K1;
+
+    /**
+     * Subkey 2
+     */
+    private final boolean[] K2;
+
+    /**
+     * Substitution table giving the encrypted value of each of the 256 possible bytes
+     */
+    private final byte[] encryptTable;
+
+    /**
+     * Substitution table giving the decrypted value of each of the 256 possible bytes
+     */
+    private final byte[] decryptTable;
+
+    /**
+     * S-Box 0
+     */
+    private static final boolean[][][] S0 = new boolean[][][]
+        {{{false, true},  {false, false}, {true,  true}, {true,  false}},
+         {{true,  true},  {true,  false}, {false, true}, {false, false}},
+         {{false, false}, {true,  false}, {false, true}, {true,  true}},
+         {{true,  true},  {false, true},  {true,  true}, {true,  false}}};
+
+    /**
+     * S-Box 1
+     */
+    private static final boolean[][][] S1 = new boolean[][][]
+        {{{false, false}, {false, true},  {true,  false}, {true,  true}},
+         {{true,  false}, {false, false}, {false, true},  {true,  true}},
+         {{true,  true},  {false, false}, {false, true},  {false, false}},
+         {{true,  false}, {false, true},  {false, false}, {true,  true}}};
+
+    /**
+     * Instances already built by forKey, indexed by key
+     */
+    private static final AtomicReferenceArray<SDES> INSTANCES = new AtomicReferenceArray<>(1024);
+
+    /**
+     * System property asking for the instances of all the keys to be built when the class is initialized
+     * It is set when building a native image (see META-INF/native-image), where this class is initialized at build
+     * time: the substitution tables of every key are then computed once and stored in the image.
+     */
+    public static final String PRECOMPUTE_PROPERTY = "sdes.precompute";
+
+    static {
+        if (Boolean.getBoolean(PRECOMPUTE_PROPERTY)) {
+            for (int key = 0 ; key < 1024 ; key++)
+                INSTANCES.set(key, new SDES(key));
+        }
+    }
+
+    /**
+     * Instanciate a new instance of SDES to perform encryption or decrytion operations.
+     * @param key 10-bit key. For example "0110100111"
+     * @throws IllegalArgumentException if the key is not made of 10 bits
+     */
+    public SDES(String key) {
+        this(parseKey(key));
+    }
+
+    /**
+     * Instanciate a new instance of SDES to perform encryption or decrytion operations.
+     * @param key 10-bit key, the first bit being the most significant one. For example 0b0110100111
+     */
+    private SDES(int key) {
+        this.master_key = int2bool(key, 10);
+
+        // The subkeys are computed with the bit-packed primitives, nothing is allocated besides the fields
+        int subkeys = SDESBits.generateKeys(key);
+        int k1 = subkeys >> 8;
+        int k2 = subkeys & 0xFF;
+
+        this.K1 = int2bool(k1, 8);
+        this.K2 = int2bool(k2, 8);
+
+        // The key being fixed, there are only 256 possible blocks.
+        // We compute all of them once so encryption becomes a simple lookup.
+        this.encryptTable = new byte[256];
+        this.decryptTable = new byte[256];
+        for (int i = 0 ; i < 256 ; i++) {
+            this.encryptTable[i] = (byte)SDESBits.encrypt(i, k1, k2);
+            this.decryptTable[i] = (byte)SDESBits.decrypt(i, k1, k2);
+        }
+    }
+
+    /**
+     * Gives the instance of SDES of a key
+     * There is a single instance per key, built on first use then shared, so asking for it again costs nothing.
+     * @param key 10-bit key, the first bit being the most significant one. For example 0b0110100111
+     * @return The instance of the key
+     * @throws IllegalArgumentException if the key does not fit in 10 bits
+     */
+    public static SDES forKey(int key) {
+        if (key < 0 || key >= 1024)
+            throw new IllegalArgumentException("The key must be of the size of 10 bits");
+
+        SDES sdes = INSTANCES.get(key);
+        if (sdes == null) {
+            // Two threads may build the same instance at once, only the first one to finish is kept
+            INSTANCES.compareAndSet(key, null, new SDES(key));
+            sdes = INSTANCES.get(key);
+        }
+
+        return sdes;
+    }
+
+    /**
+     * Gives the instance of SDES of a key
+     * See forKey(int).
+     * @param key 10-bit key. For example "0110100111"
+     * @return The instance of the key
+     * @throws IllegalArgumentException if the key is not made of 10 bits
+     */
+    public static SDES forKey(String key) {
+        return forKey(parseKey(key));
+    }
+
+    /**
+     * Reads a key written as a string of bits
+     * @param key 10-bit key. For example "0110100111"
+     * @return The key as an int, the first bit being the most significant one. For example 0b0110100111
+     * @throws IllegalArgumentException if the key is not made of 10 bits
+     */
+    public static int parseKey(String key) {
+        if (key.length() != 10)
+            throw new IllegalArgumentException("The key must be of the size of 10 bits");
+
+        int result = 0;
+        for (int i = 0 ; i < key.length() ; i++) {
+            char c = key.charAt(i);
+            if (c != '0' && c != '1')
+                throw new IllegalArgumentException("The key can only contain '0' or '1'");
+
+            result = (result << 1) | (c - '0');
+        }
+
+        return result;
+    }
+
+    // ###############################
+    // Generation of subkeys K1 and K2
+    // ###############################
+
+    /**
+     * Performs a P10 permutation
+     * P10(k1, k2, k3, k4, k5, k6, k7, k8, k9, k10) = (k3, k5, k2, k7, k4, k10, k1, k9, k8, k6)
+     * @param input 10-bit sequence to transform
+     * @return an array of 8 booleans
+     */
+    static boolean[] p10(boolean[] input) {
+        boolean[] output = new boolean[10];
+
+        // This is an abitrary permutation, it needs to be done by hand
+        output[0] = input[2];
+        output[1] = input[4];
+        output[2] = input[1];
+        output[3] = input[6];
+        output[4] = input[3];
+        output[5] = input[9];
+        output[6] = input[0];
+        output[7] = input[8];
+        output[8] = input[7];
+        output[9] = input[5];
+
+        return output;
+    }
+
+    /**
+     * Performs a P8 permutation
+     * P8(k1, k2, k3, k4, k5, k6, k7, k8) = (k6, k3, k7, k4, k8, k5, k10, k9)
+     * @param input 8-bit sequence to transform
+     * @return an array of 8 booleans
+     */
+    static boolean[] p8(boolean[] input) {
+        boolean[] output = new boolean[8];
+
+        // This is an abitrary permutation, it needs to be done by hand
+        output[0] = input[5];
+        output[1] = input[2];
+        output[2] = input[6];
+        output[3] = input[3];
+        output[4] = input[7];
+        output[5] = input[4];
+        output[6] = input[9];
+        output[7] = input[8];
+
+        return output;
+    }
+
+    /**
+     * Rotates all the bits of each half of the sequence to the left
+     * For example : 10000 01100 becomes 00001 11000 with a shift of 1 bit.
+     * @param input 10-bit sequence to transform
+     * @param offset number of times the rotation is performed
+     */
+    static boolean[] circularLeftShift(boolean[] input, int offset) {
+        // Splits in two halves of 5 bits
+        boolean[] leftHalf = new boolean[5];
+        boolean[] rightHalf = new boolean[5];
+
+        // Rotates to the left
+        for (int i = 0 ; i < 5 ; i++) {
+            leftHalf[5 - (((5 - i - 1) + offset) % 5) - 1] = input[i];
+            rightHalf[5 - (((5 - i - 1) + offset) % 5) - 1] = input[i + 5];
+        }
+
+        // Gathering of the two halves
+        boolean[] output = new boolean[10];
+        System.arraycopy(leftHalf, 0, output, 0, leftHalf.length);
+        System.arraycopy(rightHalf, 0, output, 5, rightHalf.length);
+
+        return output;
+    }
+
+    /**
+     * Generates the two subkeys from the main one
+     * @param master_key 10-bit main key
+     * @return ArrayList containing in index 0 => K1 and in index 1 => K2
+     */
+    static ArrayList<boolean[]> generateKeys(boolean[] master_key) {
+        // master_key => p10 => circularLeftShift(1) => p8 => K1
+        boolean[] K1 = p8(circularLeftShift(p10(master_key), 1));
+
+        // master_key => p10 => circularLeftShift(3) => p8 => K2
+        boolean[] K2 = p8(circularLeftShift(p10(master_key), 3));
+
+        ArrayList<boolean[]> keys = new ArrayList<>();
+        keys.add(K1);
+        keys.add(K2);
+        return keys;
+    }
+
+    // ###################################
+    // Encryption and decryption functions
+    // ###################################
+
+    /**
+     * Performs an Initial Permutation (IP) on a byte
+     * IP(k1, k2, k3, k4, k5, k6, k7, k8) = (k2, k6, k3, k1, k4, k8, k5, k7)
+     * @param input Byte to transform
+     * @return transformed byte
+     */
+    static boolean[] ip(boolean[] input) {
+        boolean[] output = new boolean[8];
+
+        // This is an abitrary permutation, it needs to be done by hand
+        output[0] = input[1];
+        output[1] = input[5];
+        output[2] = input[2];
+        output[3] = input[0];
+        output[4] = input[3];
+        output[5] = input[7];
+        output[6] = input[4];
+        output[7] = input[6];
+
+        return output;
+    }
+
+    /**
+     * Performs an Reversed Initial Permutation (RIP or IP-1) on a byte
+     * IP−1(k1, k2, k3, k4, k5, k6, k7, k8) = (k4, k1, k3, k5, k7, k2, k8, k6)
+     * Note that IP ans RIP are defined so x = RIP(IP(x))
+     * @param input Byte to transform
+     * @return transformed byte
+     */
+    static boolean[] rip(boolean[] input) {
+        boolean[] output = new boolean[8];
+
+        // This is an abitrary permutation, it needs to be done by hand
+        output[0] = input[3];
+        output[1] = input[0];
+        output[2] = input[2];
+        output[3] = input[4];
+        output[4] = input[6];
+        output[5] = input[1];
+        output[6] = input[7];
+        output[7] = input[5];
+
+        return output;
+    }
+
+    /**
+     * Performs an Expansion/Permutation (E/P) operation on a 4-bit word
+     * E/P(n1, n2, n3, n4) = (n4, n1, n2, n3, n2, n3, n4, n1)
+     * @param input 4-bit word to transform
+     * @return 8-bit (byte) resulting of the operation
+     */
+    static boolean[] ep(boolean[] input) {
+        boolean[] output = new boolean[8];
+
+        // This is an abitrary permutation, it needs to be done by hand
+        output[0] = input[3];
+        output[1] = input[0];
+        output[2] = input[1];
+        output[3] = input[2];
+        output[4] = input[1];
+        output[5] = input[2];
+        output[6] = input[3];
+        output[7] = input[0];
+
+        return output;
+    }
+
+    /**
+     * Performs an exlusif or (XOR) operation on two words
+     * Both operands must have the same number of bits
+     * @param a Operand 1
+     * @param b Operand 2
+     * @return result
+     */
+    static boolean[] xor(boolean[] a, boolean[] b) {
+        boolean[] output = new boolean[a.length];
+
+        for (int i = 0 ; i < a.length ; i++)
+            output[i] = a[i] ^ b[i];
+
+        return output;
+    }
+
+    /**
+     * Transforms a byte by using the S-Boxes as correspondence table
+     * @param input An 8-bit word
+     * @return A 4-bit word resulting of the transformation
+     */
+    static boolean[] sboxTransform(boolean[] input) {
+        int i, j = 0;
+
+        // Left half with S0
+
+        // The 1st and 4th bits give the index of the row
+        i = (input[0] ? 2 : 0) + (input[3] ? 1 : 0);
+        // The 2nd and 3rd bits give the index of the column
+        j = (input[1] ? 2 : 0) + (input[2] ? 1 : 0);
+
+        // These indexes point to a cell of S0 whose value is taken
+        boolean[] s0Result = S0[i][j];
+
+        // Right half with S1
+
+        // The 5th and 8th bits give the index of the row
+        i = (input[4] ? 2 : 0) + (input[7] ? 1 : 0);
+        // The 6th and 7th bits give the index of the column
+        j = (input[5] ? 2 : 0) + (input[6] ? 1 : 0);
+
+        // These indexes point to a cell of S1 whose value is taken
+        boolean[] s1Result = S1[i][j];
+
+        // Finally we gather the given results in a 4-bit word
+        return new boolean[] {s0Result[0], s0Result[1], s1Result[0], s1Result[1]};
+    }
+
+    /**
+     * Performs a P4 permutation
+     * P4(k1, k2, k3, k4) = (k2, k4, k3, k1)
+     * @param input 4-bit word to transform
+     * @return 4-bit word resulting of the transformation
+     */
+    static boolean[] p4(boolean[] input) {
+        boolean[] output = new boolean[4];
+
+        // This is an abitrary permutation, it needs to be done by hand
+        output[0] = input[1];
+        output[1] = input[3];
+        output[2] = input[2];
+        output[3] = input[0];
+
+        return output;
+    }
+
+    /**
+     * Encryption transformation sub-function
+     * @param right right half of the byte to transform
+     * @param sk Subkey K1 or K2
+     * @return a sequence of 4 bits
+     */
+    static boolean[] f(boolean[] right, boolean[] sk) {
+        // We apply E/P on right
+        // We perform a XOR between the given result and the subkey
+        // We pass the result through the S-Boxes
+        // Finally we "shuffle" with P4 and return it
+        return p4(sboxTransform(xor(ep(right), sk)));
+    }
+
+    /**
+     * fK transformation
+     * @param bits 8-bit sequence given by IP or RIP
+     * @param sk Subkey K1 or K2
+     * @return a sequence of 8 bits
+     */
+    static boolean[] fK(boolean[] bits, boolean[] sk) {
+        // We perform a XOR between the left half and the result of f(right)
+        // We concatenate the 4 bits of the original right with the result above
+        // We return this concatenation
+
+        // Split in two halves
+        boolean[] left = new boolean[4];
+        boolean[] right = new boolean[4];
+        System.arraycopy(bits, 0, left, 0, left.length);
+        System.arraycopy(bits, 4, right, 0, right.length);
+
+        // = left XOR f(right, SK)
+        boolean[] transformed = xor(left, f(right, sk));
+
+        // = concat(transformed, right)
+        boolean[] output = new boolean[8];
+        System.arraycopy(transformed, 0, output, 0, transformed.length);
+        System.arraycopy(right, 0, output, 4, right.length);
+
+        return output;
+    }
+
+    /**
+     * Swaps the two halves of a byte
+     * For exemple, 11110000 becomes 00001111
+     * @param input Byte to transform
+     * @return Byte resulting
+     */
+    static boolean[] sw(boolean[] input) {
+        boolean[] output = new boolean[8];
+        System.arraycopy(input, 4, output, 0, 4);
+        System.arraycopy(input, 0, output, 4, 4);
+
+        return output;
+    }
+
+    /**
+     * Converts a byte into a boolean array
+     * @param block Byte to transcript
+     * @return Array of 8 booleans
+     */
+    static boolean[] byte2bool(byte block) {
+        boolean[] result = new boolean[8];
+
+        // Let's run through the bits individually
+        for (int i = 0 ; i < 8 ; i++) {
+            // Slice the bit at the position i in the byte
+            int b = ((block >> i) & 1);
+
+            // And insert it in the array in the form of a boolean
+            result[7 - i] = b == 1;
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts a boolean array into a byte
+     * @param block An array of 8 booleans
+     * @return The resulting byte
+     */
+    static byte bool2byte(boolean[] block) {
+        byte result = 0b00000000;
+
+        // For each boolean (bit) of the array
+        for (int i = 0 ; i < block.length ; i++) {
+            // We "print" it at the end of the byte
+            result = (byte)(result | (block[i] ? 1 : 0));
+
+            // And we shift the previous bits to the left to let space for the next one
+            if (i < block.length - 1)
+                result = (byte)(result << 1);
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts a boolean array into an int, the first boolean being the most significant bit
+     * @param bits An array of at most 31 booleans
+     * @return The resulting int
+     */
+    static int bool2int(boolean[] bits) {
+        int result = 0;
+
+        for (boolean bit : bits)
+            result = (result << 1) | (bit ? 1 : 0);
+
+        return result;
+    }
+
+    /**
+     * Converts an int into a boolean array, the most significant bit first
+     * @param value The int to convert
+     * @param size Number of bits to take from value
+     * @return Array of size booleans
+     */
+    static boolean[] int2bool(int value, int size) {
+        boolean[] result = new boolean[size];
+
+        for (int i = 0 ; i < size ; i++)
+            result[i] = ((value >> (size - 1 - i)) & 1) == 1;
+
+        return result;
+    }
+
+    /**
+     * Computes the encryption of a data block by running it through all the S-DES steps
+     * @param block A plain byte to encrypt
+     * @return The resulting byte
+     */
+    @SuppressWarnings("Duplicates")
+    byte encryptBlock(byte block) {
+        boolean[] tmp = byte2bool(block);
+
+        tmp = ip(tmp);
+        tmp = fK(tmp, this.K1);
+        tmp = sw(tmp);
+        tmp = fK(tmp, this.K2);
+        tmp = rip(tmp);
+
+        return bool2byte(tmp);
+    }
+
+    /**
+     * Computes the decryption of a data block by running it through all the S-DES steps
+     * @param block A byte to decrypt
+     * @return The resulting plain byte
+     */
+    @SuppressWarnings("Duplicates")
+    byte decryptBlock(byte block) {
+        boolean[] tmp = byte2bool(block);
+
+        tmp = ip(tmp);
+        tmp = fK(tmp, this.K2);
+        tmp = sw(tmp);
+        tmp = fK(tmp, this.K1);
+        tmp = rip(tmp);
+
+        return bool2byte(tmp);
+    }
+
+    /**
+     * Encrypts a data block
+     * The result is read from the precomputed substitution table
+     * @param block A plain byte to encrypt
+     * @return The resulting byte
+     */
+    byte encrypt(byte block) {
+        return this.encryptTable[block & 0xFF];
+    }
+
+    /**
+     * Decrypts a data block
+     * The result is read from the precomputed substitution table
+     * @param block A byte to decrypt
+     * @return The resulting plain byte
+     */
+    byte decrypt(byte block) {
+        return this.decryptTable[block & 0xFF];
+    }
+
+    /**
+     * Gives the substitution table of a direction
+     * The array is shared, it must not be modified.
+     * @param decrypt true for decryptTable, false for encryptTable
+     */
+    byte[] table(boolean decrypt) {
+        return decrypt ? this.decryptTable : this.encryptTable;
+    }
+
+    /**
+     * Encrypts a sequence of bytes
+     * The source and destination arrays can be the same, even if the ranges overlap
+     * @param src Array containing the plain bytes
+     * @param off Index of the first byte to encrypt in src
+     * @param len Number of bytes to encrypt
+     * @param dst Array receiving the encrypted bytes
+     * @param dstOff Index where the first encrypted byte is written in dst
+     */
+    public void encrypt(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        transform(this.encryptTable, src, off, len, dst, dstOff);
+    }
+
+    /**
+     * Decrypts a sequence of bytes
+     * The source and destination arrays can be the same, even if the ranges overlap
+     * @param src Array containing the encrypted bytes
+     * @param off Index of the first byte to decrypt in src
+     * @param len Number of bytes to decrypt
+     * @param dst Array receiving the plain bytes
+     * @param dstOff Index where the first plain byte is written in dst
+     */
+    public void decrypt(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        transform(this.decryptTable, src, off, len, dst, dstOff);
+    }
+
+    /**
+     * Passes a sequence of bytes through a substitution table
+     * @param table encryptTable or decryptTable
+     * @param src Array containing the bytes to transform
+     * @param off Index of the first byte to transform in src
+     * @param len Number of bytes to transform
+     * @param dst Array receiving the transformed bytes
+     * @param dstOff Index where the first transformed byte is written in dst
+     */
+    private static void transform(byte[] table, byte[] src, int off, int len, byte[] dst, int dstOff) {
+        if (off < 0 || len < 0 || dstOff < 0 || off > src.length - len || dstOff > dst.length - len)
+            throw new IndexOutOfBoundsException(String.format(
+                    "Range [%d, %d) out of source of length %d or [%d, %d) out of destination of length %d",
+                    off, off + len, src.length, dstOff, dstOff + len, dst.length));
+
+        if (src == dst && dstOff > off) {
+            // Overlapping ranges: we go backward so no byte is overwritten before being read
+            for (int i = len - 1 ; i >= 0 ; i--)
+                dst[dstOff + i] = table[src[off + i] & 0xFF];
+        }
+        else {
+            // Vector API when available, plain loop otherwise
+            BulkTransformer.INSTANCE.transform(table, src, off, len, dst, dstOff);
+        }
+    }
+
+    /**
+     * Encrypts the remaining bytes of a buffer
+     * Follows the conventions of javax.crypto.Cipher.update(ByteBuffer, ByteBuffer): all the bytes between the
+     * position and the limit of src are encrypted into dst starting at its position, then the position of src is
+     * moved to its limit and the one of dst forward by the number of bytes written.
+     * Heap and direct buffers are both accepted. If src and dst are the same object, the bytes are encrypted in place
+     * and the position is moved once to the limit.
+     * @param src Buffer containing the plain bytes
+     * @param dst Buffer receiving the encrypted bytes
+     * @return The number of bytes written in dst
+     * @throws BufferOverflowException if dst has not enough remaining space, in which case no byte is transformed
+     * @throws ReadOnlyBufferException if dst is read-only
+     */
+    public int encrypt(ByteBuffer src, ByteBuffer dst) {
+        return transform(this.encryptTable, src, dst);
+    }
+
+    /**
+     * Decrypts the remaining bytes of a buffer
+     * Follows the same conventions as encrypt(ByteBuffer, ByteBuffer).
+     * @param src Buffer containing the encrypted bytes
+     * @param dst Buffer receiving the plain bytes
+     * @return The number of bytes written in dst
+     * @throws BufferOverflowException if dst has not enough remaining space, in which case no byte is transformed
+     * @throws ReadOnlyBufferException if dst is read-only
+     */
+    public int decrypt(ByteBuffer src, ByteBuffer dst) {
+        return transform(this.decryptTable, src, dst);
+    }
+
+    /**
+     * Passes the remaining bytes of a buffer through a substitution table
+     * @param table encryptTable or decryptTable
+     * @param src Buffer containing the bytes to transform
+     * @param dst Buffer receiving the transformed bytes, possibly src itself
+     * @return The number of bytes written in dst
+     */
+    private static int transform(byte[] table, ByteBuffer src, ByteBuffer dst) {
+        int length = src.remaining();
+        int srcPosition = src.position();
+        int dstPosition = dst.position();
+
+        if (dst.isReadOnly())
+            throw new ReadOnlyBufferException();
+        if (src != dst && dst.remaining() < length)
+            throw new BufferOverflowException();
+
+        if (src.hasArray() && dst.hasArray()) {
+            // Heap buffers: we work directly on the backing arrays
+            transform(table, src.array(), src.arrayOffset() + srcPosition, length,
+                    dst.array(), dst.arrayOffset() + dstPosition);
+        }
+        else {
+            // Direct or mapped buffers: absolute accesses, so nothing is copied into the heap
+            for (int i = 0 ; i < length ; i++)
+                dst.put(dstPosition + i, table[src.get(srcPosition + i) & 0xFF]);
+        }
+
+        src.position(srcPosition + length);
+        if (src != dst)
+            dst.position(dstPosition + length);
+
+        return length;
+    }
+
+    /**
+     * Encrypts a file
+     * Its content will be ciphered by blocks of one byte, read and written by chunks of DEFAULT_BUFFER_SIZE bytes
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     */
+    public void encryptFile(File inputFile, File outputFile) throws IOException {
+        this.encryptFile(inputFile, outputFile, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Encrypts a file
+     * Its content will be ciphered by blocks of one byte, read and written by chunks of bufferSize bytes
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param bufferSize Size of the chunks in bytes
+     */
+    public void encryptFile(File inputFile, File outputFile, int bufferSize) throws IOException {
+        transformFile(this.encryptTable, false, inputFile, outputFile, bufferSize, null);
+    }
+
+    /**
+     * Encrypts a file and reports its progress
+     * Its content will be ciphered by blocks of one byte, read and written by chunks of bufferSize bytes
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param bufferSize Size of the chunks in bytes
+     * @param progress Called after each chunk, or null
+     */
+    public void encryptFile(File inputFile, File outputFile, int bufferSize, ProgressListener progress) throws IOException {
+        transformFile(this.encryptTable, false, inputFile, outputFile, bufferSize, progress);
+    }
+
+    /**
+     * Decrypts a file
+     * Its content will be unciphered by blocks of one byte, read and written by chunks of DEFAULT_BUFFER_SIZE bytes
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     */
+    public void decryptFile(File inputFile, File outputFile) throws IOException {
+        this.decryptFile(inputFile, outputFile, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Decrypts a file
+     * Its content will be unciphered by blocks of one byte, read and written by chunks of bufferSize bytes
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param bufferSize Size of the chunks in bytes
+     */
+    public void decryptFile(File inputFile, File outputFile, int bufferSize) throws IOException {
+        transformFile(this.decryptTable, true, inputFile, outputFile, bufferSize, null);
+    }
+
+    /**
+     * Decrypts a file and reports its progress
+     * Its content will be unciphered by blocks of one byte, read and written by chunks of bufferSize bytes
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param bufferSize Size of the chunks in bytes
+     * @param progress Called after each chunk, or null
+     */
+    public void decryptFile(File inputFile, File outputFile, int bufferSize, ProgressListener progress) throws IOException {
+        transformFile(this.decryptTable, true, inputFile, outputFile, bufferSize, progress);
+    }
+
+    /**
+     * Passes the whole content of a file through a substitution table
+     * The operation is recorded in CipherMetrics.
+     * @param table encryptTable or decryptTable
+     * @param decrypt true if table is decryptTable
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param bufferSize Size of the chunks in bytes
+     * @param progress Called after each chunk, or null
+     * @throws FileNotFoundException if a file cannot be opened
+     */
+    private static void transformFile(byte[] table, boolean decrypt, File inputFile, File outputFile, int bufferSize,
+                                      ProgressListener progress) throws IOException {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("The buffer size must be positive");
+
+        FileInputStream input = null;
+        FileOutputStream output = null;
+        long start = System.nanoTime();
+        long bytes;
+
+        try {
+            input = new FileInputStream(inputFile);
+            output = new FileOutputStream(outputFile);
+
+            // Read until the end rather than up to the reported size: special files (FIFOs, /dev/stdin, /proc)
+            // report a size of 0, and a file being written grows meanwhile
+            bytes = transformStream(table, input, output, bufferSize, progress);
+        } catch (Throwable e) {
+            CipherMetrics.getInstance().failed(inputFile, decrypt, e);
+            throw e;
+        } finally {
+            if (input != null)
+                input.close();
+            if (output != null)
+                output.close();
+        }
+
+        CipherMetrics.getInstance().completed(inputFile, decrypt, bytes, start);
+    }
+
+    /**
+     * Encrypts everything read from a stream until its end, and writes it to another stream
+     * The streams are neither flushed nor closed.
+     * @param input Stream to read the plain bytes from
+     * @param output Stream to write the encrypted bytes to
+     * @param bufferSize Size of the chunks in bytes
+     */
+    public void encryptStream(InputStream input, OutputStream output, int bufferSize) throws IOException {
+        recordStream(this.encryptTable, false, input, output, bufferSize, null);
+    }
+
+    /**
+     * Encrypts everything read from a stream until its end, and reports its progress
+     * The streams are neither flushed nor closed.
+     * @param input Stream to read the plain bytes from
+     * @param output Stream to write the encrypted bytes to
+     * @param bufferSize Size of the chunks in bytes
+     * @param progress Called after each chunk, or null
+     */
+    public void encryptStream(InputStream input, OutputStream output, int bufferSize, ProgressListener progress) throws IOException {
+        recordStream(this.encryptTable, false, input, output, bufferSize, progress);
+    }
+
+    /**
+     * Decrypts everything read from a stream until its end, and writes it to another stream
+     * The streams are neither flushed nor closed.
+     * @param input Stream to read the encrypted bytes from
+     * @param output Stream to write the plain bytes to
+     * @param bufferSize Size of the chunks in bytes
+     */
+    public void decryptStream(InputStream input, OutputStream output, int bufferSize) throws IOException {
+        recordStream(this.decryptTable, true, input, output, bufferSize, null);
+    }
+
+    /**
+     * Decrypts everything read from a stream until its end, and reports its progress
+     * The streams are neither flushed nor closed.
+     * @param input Stream to read the encrypted bytes from
+     * @param output Stream to write the plain bytes to
+     * @param bufferSize Size of the chunks in bytes
+     * @param progress Called after each chunk, or null
+     */
+    public void decryptStream(InputStream input, OutputStream output, int bufferSize, ProgressListener progress) throws IOException {
+        recordStream(this.decryptTable, true, input, output, bufferSize, progress);
+    }
+
+    /**
+     * Passes a stream through a substitution table, and records the operation in CipherMetrics
+     * @param table encryptTable or decryptTable
+     * @param decrypt true if table is decryptTable
+     * @param input Stream to read from
+     * @param output Stream to write to
+     * @param bufferSize Size of the chunks in bytes
+     * @param progress Called after each chunk, or null
+     */
+    private static void recordStream(byte[] table, boolean decrypt, InputStream input, OutputStream output, int bufferSize,
+                                     ProgressListener progress) throws IOException {
+        long start = System.nanoTime();
+        long bytes;
+
+        try {
+            bytes = transformStream(table, input, output, bufferSize, progress);
+        } catch (Throwable e) {
+            CipherMetrics.getInstance().failed(null, decrypt, e);
+            throw e;
+        }
+
+        CipherMetrics.getInstance().completed(null, decrypt, bytes, start);
+    }
+
+    /**
+     * Passes everything read from a stream through a substitution table, chunk by chunk
+     * @param table encryptTable or decryptTable
+     * @param input Stream to read from
+     * @param output Stream to write to
+     * @param bufferSize Size of the chunks in bytes
+     * @param progress Called after each chunk, or null
+     * @return The number of bytes transformed
+     */
+    private static long transformStream(byte[] table, InputStream input, OutputStream output, int bufferSize,
+                                        ProgressListener progress) throws IOException {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("The buffer size must be positive");
+
+        BufferPool pool = BufferPool.forSize(bufferSize);
+        ByteBuffer pooled = pool.acquire(bufferSize);
+        byte[] buffer = pooled.array();
+        long bytes = 0;
+        int n;
+
+        try {
+            while ((n = input.read(buffer, 0, bufferSize)) != -1) {
+                transform(table, buffer, 0, n, buffer, 0);
+                output.write(buffer, 0, n);
+                bytes += n;
+
+                if (progress != null)
+                    progress.progress(n);
+            }
+        } finally {
+            pool.release(pooled);
+        }
+        return bytes;
+    }
+
+    /**
+     * Encrypts a file by mapping it in memory
+     * The data goes from the page cache of the input to the one of the output without being copied into the heap,
+     * which suits files bigger than the heap.
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     */
+    public void encryptFileMapped(File inputFile, File outputFile) throws IOException {
+        transformFileMapped(this.encryptTable, false, inputFile, outputFile, null);
+    }
+
+    /**
+     * Encrypts a file by mapping it in memory, and reports its progress
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param progress Called after each mapped region of MAP_REGION_SIZE bytes, or null
+     */
+    public void encryptFileMapped(File inputFile, File outputFile, ProgressListener progress) throws IOException {
+        transformFileMapped(this.encryptTable, false, inputFile, outputFile, progress);
+    }
+
+    /**
+     * Decrypts a file by mapping it in memory
+     * The data goes from the page cache of the input to the one of the output without being copied into the heap,
+     * which suits files bigger than the heap.
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     */
+    public void decryptFileMapped(File inputFile, File outputFile) throws IOException {
+        transformFileMapped(this.decryptTable, true, inputFile, outputFile, null);
+    }
+
+    /**
+     * Decrypts a file by mapping it in memory, and reports its progress
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param progress Called after each mapped region of MAP_REGION_SIZE bytes, or null
+     */
+    public void decryptFileMapped(File inputFile, File outputFile, ProgressListener progress) throws IOException {
+        transformFileMapped(this.decryptTable, true, inputFile, outputFile, progress);
+    }
+
+    /**
+     * Passes the whole content of a file through a substitution table, region by region of MAP_REGION_SIZE bytes
+     * The operation is recorded in CipherMetrics.
+     * @param table encryptTable or decryptTable
+     * @param decrypt true if table is decryptTable
+     * @param inputFile Path to the file to read
+     * @param outputFile Path to the file to write
+     * @param progress Called after each region, or null
+     * @throws FileNotFoundException if a file cannot be opened
+     */
+    private static void transformFileMapped(byte[] table, boolean decrypt, File inputFile, File outputFile,
+                                            ProgressListener progress) throws IOException {
+        RandomAccessFile input = null;
+        RandomAccessFile output = null;
+        long start = System.nanoTime();
+        long size;
+
+        try {
+            input = new RandomAccessFile(inputFile, "r");
+            output = new RandomAccessFile(outputFile, "rw");
+
+            // S-DES keeps the size unchanged, so the output can be allocated at once and filled in place
+            size = input.length();
+            output.setLength(size);
+
+            FileChannel inputChannel = input.getChannel();
+            FileChannel outputChannel = output.getChannel();
+
+            for (long position = 0 ; position < size ; position += MAP_REGION_SIZE) {
+                int length = (int)Math.min(MAP_REGION_SIZE, size - position);
+                MappedByteBuffer src = inputChannel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                MappedByteBuffer dst = outputChannel.map(FileChannel.MapMode.READ_WRITE, position, length);
+
+                transform(table, src, dst);
+
+                if (progress != null)
+                    progress.progress(length);
+            }
+        } catch (Throwable e) {
+            CipherMetrics.getInstance().failed(inputFile, decrypt, e);
+            throw e;
+        } finally {
+            if (input != null)
+                input.close();
+            if (output != null)
+                output.close();
+        }
+
+        CipherMetrics.getInstance().completed(inputFile, decrypt, size, start);
+    }
+
+    /**
+     * Encrypts a file in place, without writing a second file
+     * See transformInPlace for the crash recovery.
+     * @param file Path to the file to encrypt
+     */
+    public void encryptInPlace(Path file) throws IOException {
+        this.transformInPlace(file, false, DEFAULT_IN_PLACE_CHUNK_SIZE, null);
+    }
+
+    /**
+     * Encrypts a file in place, without writing a second file
+     * See transformInPlace for the crash recovery.
+     * @param file Path to the file to encrypt
+     * @param chunkSize Size of the chunks rewritten at once, and of the journal
+     */
+    public void encryptInPlace(Path file, int chunkSize) throws IOException {
+        this.transformInPlace(file, false, chunkSize, null);
+    }
+
+    /**
+     * Encrypts a file in place, without writing a second file, and reports its progress
+     * See transformInPlace for the crash recovery.
+     * @param file Path to the file to encrypt
+     * @param chunkSize Size of the chunks rewritten at once, and of the journal
+     * @param progress Called after each chunk, or null. A resumed run first reports the part done by the previous one.
+     */
+    public void encryptInPlace(Path file, int chunkSize, ProgressListener progress) throws IOException {
+        this.transformInPlace(file, false, chunkSize, progress);
+    }
+
+    /**
+     * Decrypts a file in place, without writing a second file
+     * See transformInPlace for the crash recovery.
+     * @param file Path to the file to decrypt
+     */
+    public void decryptInPlace(Path file) throws IOException {
+        this.transformInPlace(file, true, DEFAULT_IN_PLACE_CHUNK_SIZE, null);
+    }
+
+    /**
+     * Decrypts a file in place, without writing a second file
+     * See transformInPlace for the crash recovery.
+     * @param file Path to the file to decrypt
+     * @param chunkSize Size of the chunks rewritten at once, and of the journal
+     */
+    public void decryptInPlace(Path file, int chunkSize) throws IOException {
+        this.transformInPlace(file, true, chunkSize, null);
+    }
+
+    /**
+     * Decrypts a file in place, without writing a second file, and reports its progress
+     * See transformInPlace for the crash recovery.
+     * @param file Path to the file to decrypt
+     * @param chunkSize Size of the chunks rewritten at once, and of the journal
+     * @param progress Called after each chunk, or null. A resumed run first reports the part done by the previous one.
+     */
+    public void decryptInPlace(Path file, int chunkSize, ProgressListener progress) throws IOException {
+        this.transformInPlace(file, true, chunkSize, progress);
+    }
+
+    /**
+     * Rewrites a file with its transformed content, chunk by chunk
+     * Before a chunk is overwritten, its original content and offset are saved in a journal beside the file
+     * (file name + JOURNAL_SUFFIX). If the process stops part way through, the next call with the same key and
+     * operation finds the journal, rewrites the interrupted chunk from the saved content and carries on from there.
+     * The journal is deleted once the whole file is done.
+     * Note that the journal holds the original content of one chunk.
+     * The operation is recorded in CipherMetrics.
+     * @param file Path to the file to transform
+     * @param decrypt true to decrypt, false to encrypt
+     * @param chunkSize Size of the chunks rewritten at once
+     * @param progress Called after each chunk, or null
+     */
+    private void transformInPlace(Path file, boolean decrypt, int chunkSize, ProgressListener progress) throws IOException {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("The chunk size must be positive");
+
+        byte[] table = decrypt ? this.decryptTable : this.encryptTable;
+        byte operation = (byte)(decrypt ? 1 : 0);
+        Path journal = file.resolveSibling(file.getFileName() + JOURNAL_SUFFIX);
+        Path journalTmp = file.resolveSibling(file.getFileName() + JOURNAL_TMP_SUFFIX);
+
+        FileChannel channel = null;
+        BufferPool pool = null;
+        ByteBuffer pooled = null;
+        long start = System.nanoTime();
+        long size;
+
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = channel.size();
+            long position = 0;
+
+            // A previous run has been interrupted: we start again from its last chunk
+            if (Files.exists(journal)) {
+                ByteBuffer saved = ByteBuffer.wrap(Files.readAllBytes(journal));
+
+                if (saved.remaining() < JOURNAL_HEADER_SIZE
+                        || saved.getInt() != JOURNAL_MAGIC
+                        || saved.get() != operation
+                        || saved.getInt() != this.fingerprint())
+                    throw new IOException(String.format(
+                            "The journal %s does not belong to this operation or to this key", journal));
+
+                long offset = saved.getLong();
+                int length = saved.getInt();
+                if (length != saved.remaining() || offset + length > size)
+                    throw new IOException(String.format("The journal %s is corrupted", journal));
+
+                byte[] chunk = new byte[length];
+                saved.get(chunk);
+                transform(table, chunk, 0, length, chunk, 0);
+                writeFully(channel, chunk, length, offset);
+                channel.force(false);
+
+                position = offset + length;
+
+                if (progress != null)
+                    progress.progress(position);
+            }
+
+            pool = BufferPool.forSize((int)Math.min(chunkSize, size));
+            pooled = pool.acquire((int)Math.min(chunkSize, size));
+            byte[] buffer = pooled.array();
+
+            while (position < size) {
+                int length = (int)Math.min(chunkSize, size - position);
+                readFully(channel, buffer, length, position);
+
+                // The original chunk must be safely on disk before we start overwriting it
+                writeJournal(journalTmp, journal, operation, this.fingerprint(), position, buffer, length);
+
+                transform(table, buffer, 0, length, buffer, 0);
+                writeFully(channel, buffer, length, position);
+                channel.force(false);
+
+                position += length;
+
+                if (progress != null)
+                    progress.progress(length);
+            }
+
+            Files.deleteIfExists(journal);
+        } catch (Throwable e) {
+            CipherMetrics.getInstance().failed(file.toFile(), decrypt, e);
+            throw e;
+        } finally {
+            if (pool != null)
+                pool.release(pooled);
+            if (channel != null)
+                channel.close();
+        }
+
+        CipherMetrics.getInstance().completed(file.toFile(), decrypt, size, start);
+    }
+
+    /**
+     * Identifies the key without revealing it, so a journal is not resumed with another key
+     * @return The encryption of the blocks 0 to 3
+     */
+    private int fingerprint() {
+        return (this.encryptTable[0] & 0xFF) << 24
+             | (this.encryptTable[1] & 0xFF) << 16
+             | (this.encryptTable[2] & 0xFF) << 8
+             | (this.encryptTable[3] & 0xFF);
+    }
+
+    /**
+     * Saves a chunk in the journal
+     * The journal is first written aside then moved, so the previous one is replaced only by a complete one.
+     */
+    private static void writeJournal(Path journalTmp, Path journal, byte operation, int fingerprint,
+                                     long offset, byte[] chunk, int length) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_SIZE);
+        header.putInt(JOURNAL_MAGIC).put(operation).putInt(fingerprint).putLong(offset).putInt(length);
+        header.flip();
+
+        FileChannel channel = FileChannel.open(journalTmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer data = ByteBuffer.wrap(chunk, 0, length);
+            while (header.hasRemaining() || data.hasRemaining())
+                channel.write(new ByteBuffer[] {header, data});
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+
+        Files.move(journalTmp, journal, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads exactly length bytes of a channel from the given position
+     */
+    static void readFully(FileChannel channel, byte[] buffer, int length, long position) throws IOException {
+        ByteBuffer wrapped = ByteBuffer.wrap(buffer, 0, length);
+        while (wrapped.hasRemaining()) {
+            if (channel.read(wrapped, position + wrapped.position()) == -1)
+                throw new EOFException("The file has been truncated during the operation");
+        }
+    }
+
+    /**
+     * Writes exactly length bytes to a channel from the given position
+     */
+    static void writeFully(FileChannel channel, byte[] buffer, int length, long position) throws IOException {
+        ByteBuffer wrapped = ByteBuffer.wrap(buffer, 0, length);
+        while (wrapped.hasRemaining())
+            channel.write(wrapped, position + wrapped.position());
+    }
+
+    /**
+     * Writes a 10-bit key given as an int in the form taken by the constructor
+     * @param key 10-bit key, the first bit being the most significant one. For example 0b0110100111
+     * @return The key as a string of 10 bits. For example "0110100111"
+     */
+    public static String keyToString(int key) {
+        if (key < 0 || key >= 1024)
+            throw new IllegalArgumentException("The key must be of the size of 10 bits");
+
+        return Integer.toBinaryString(key | 1024).substring(1);
+    }
+
+    public String toString() {
+        StringBuilder mkey = new StringBuilder();
+
+        for (boolean bit : this.master_key)
+            mkey.append(bit ? "1" : "0");
+
+        return "Key : " + mkey.toString();
+    }
+}
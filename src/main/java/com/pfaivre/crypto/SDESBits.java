@@ -0,0 +1,281 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * SDESBits.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+/**
+ * Bit-packed implementation of the S-DES primitives
+ * Each function gives the same result as its boolean[] counterpart in SDES,
+ * but the bits are held in an int, the first bit of the sequence being the most significant one.
+ * For example the 10-bit sequence 1000001100 is stored as 0b1000001100.
+ * Nothing is allocated, which makes it suitable for hot paths.
+ */
+final class SDESBits {
+    /**
+     * S-Box 0, flattened so the cell (row, column) is at the index row * 4 + column
+     */
+    private static final int[] S0 = new int[]
+        {1, 0, 3, 2,
+         3, 2, 1, 0,
+         0, 2, 1, 3,
+         3, 1, 3, 2};
+
+    /**
+     * S-Box 1, flattened so the cell (row, column) is at the index row * 4 + column
+     */
+    private static final int[] S1 = new int[]
+        {0, 1, 2, 3,
+         2, 0, 1, 3,
+         3, 0, 1, 0,
+         2, 1, 0, 3};
+
+    private SDESBits() {
+    }
+
+    // ###############################
+    // Generation of subkeys K1 and K2
+    // ###############################
+
+    /**
+     * Performs a P10 permutation
+     * P10(k1, k2, k3, k4, k5, k6, k7, k8, k9, k10) = (k3, k5, k2, k7, k4, k10, k1, k9, k8, k6)
+     * @param input 10-bit sequence to transform
+     * @return a 10-bit sequence
+     */
+    static int p10(int input) {
+        // This is an abitrary permutation, it needs to be done by hand
+        return ((input >> 7) & 1) << 9
+             | ((input >> 5) & 1) << 8
+             | ((input >> 8) & 1) << 7
+             | ((input >> 3) & 1) << 6
+             | ((input >> 6) & 1) << 5
+             | (input & 1) << 4
+             | ((input >> 9) & 1) << 3
+             | ((input >> 1) & 1) << 2
+             | ((input >> 2) & 1) << 1
+             | ((input >> 4) & 1);
+    }
+
+    /**
+     * Performs a P8 permutation
+     * P8(k1, k2, k3, k4, k5, k6, k7, k8) = (k6, k3, k7, k4, k8, k5, k10, k9)
+     * @param input 10-bit sequence to transform
+     * @return an 8-bit sequence
+     */
+    static int p8(int input) {
+        // This is an abitrary permutation, it needs to be done by hand
+        return ((input >> 4) & 1) << 7
+             | ((input >> 7) & 1) << 6
+             | ((input >> 3) & 1) << 5
+             | ((input >> 6) & 1) << 4
+             | ((input >> 2) & 1) << 3
+             | ((input >> 5) & 1) << 2
+             | (input & 1) << 1
+             | ((input >> 1) & 1);
+    }
+
+    /**
+     * Rotates all the bits of each half of the sequence to the left
+     * For example : 10000 01100 becomes 00001 11000 with a shift of 1 bit.
+     * @param input 10-bit sequence to transform
+     * @param offset number of times the rotation is performed
+     * @return a 10-bit sequence
+     */
+    static int circularLeftShift(int input, int offset) {
+        int shift = offset % 5;
+
+        // Splits in two halves of 5 bits
+        int leftHalf = (input >> 5) & 0x1F;
+        int rightHalf = input & 0x1F;
+
+        // Rotates to the left
+        leftHalf = ((leftHalf << shift) | (leftHalf >> (5 - shift))) & 0x1F;
+        rightHalf = ((rightHalf << shift) | (rightHalf >> (5 - shift))) & 0x1F;
+
+        // Gathering of the two halves
+        return (leftHalf << 5) | rightHalf;
+    }
+
+    /**
+     * Generates the two subkeys from the main one
+     * @param masterKey 10-bit main key
+     * @return K1 in the bits 8 to 15 and K2 in the bits 0 to 7
+     */
+    static int generateKeys(int masterKey) {
+        int permuted = p10(masterKey);
+
+        // master_key => p10 => circularLeftShift(1) => p8 => K1
+        int K1 = p8(circularLeftShift(permuted, 1));
+
+        // master_key => p10 => circularLeftShift(3) => p8 => K2
+        int K2 = p8(circularLeftShift(permuted, 3));
+
+        return (K1 << 8) | K2;
+    }
+
+    // ###################################
+    // Encryption and decryption functions
+    // ###################################
+
+    /**
+     * Performs an Initial Permutation (IP) on a byte
+     * IP(k1, k2, k3, k4, k5, k6, k7, k8) = (k2, k6, k3, k1, k4, k8, k5, k7)
+     * @param input Byte to transform
+     * @return transformed byte
+     */
+    static int ip(int input) {
+        // This is an abitrary permutation, it needs to be done by hand
+        return ((input >> 6) & 1) << 7
+             | ((input >> 2) & 1) << 6
+             | ((input >> 5) & 1) << 5
+             | ((input >> 7) & 1) << 4
+             | ((input >> 4) & 1) << 3
+             | (input & 1) << 2
+             | ((input >> 3) & 1) << 1
+             | ((input >> 1) & 1);
+    }
+
+    /**
+     * Performs an Reversed Initial Permutation (RIP or IP-1) on a byte
+     * IP-1(k1, k2, k3, k4, k5, k6, k7, k8) = (k4, k1, k3, k5, k7, k2, k8, k6)
+     * @param input Byte to transform
+     * @return transformed byte
+     */
+    static int rip(int input) {
+        // This is an abitrary permutation, it needs to be done by hand
+        return ((input >> 4) & 1) << 7
+             | ((input >> 7) & 1) << 6
+             | ((input >> 5) & 1) << 5
+             | ((input >> 3) & 1) << 4
+             | ((input >> 1) & 1) << 3
+             | ((input >> 6) & 1) << 2
+             | (input & 1) << 1
+             | ((input >> 2) & 1);
+    }
+
+    /**
+     * Performs an Expansion/Permutation (E/P) operation on a 4-bit word
+     * E/P(n1, n2, n3, n4) = (n4, n1, n2, n3, n2, n3, n4, n1)
+     * @param input 4-bit word to transform
+     * @return 8-bit (byte) resulting of the operation
+     */
+    static int ep(int input) {
+        // This is an abitrary permutation, it needs to be done by hand
+        return (input & 1) << 7
+             | ((input >> 3) & 1) << 6
+             | ((input >> 2) & 1) << 5
+             | ((input >> 1) & 1) << 4
+             | ((input >> 2) & 1) << 3
+             | ((input >> 1) & 1) << 2
+             | (input & 1) << 1
+             | ((input >> 3) & 1);
+    }
+
+    /**
+     * Performs an exlusif or (XOR) operation on two words
+     * @param a Operand 1
+     * @param b Operand 2
+     * @return result
+     */
+    static int xor(int a, int b) {
+        return a ^ b;
+    }
+
+    /**
+     * Transforms a byte by using the S-Boxes as correspondence table
+     * @param input An 8-bit word
+     * @return A 4-bit word resulting of the transformation
+     */
+    static int sboxTransform(int input) {
+        // Left half with S0
+        // The 1st and 4th bits give the index of the row, the 2nd and 3rd the index of the column
+        int i = ((input >> 6) & 0b10) | ((input >> 4) & 1);
+        int j = (input >> 5) & 0b11;
+        int s0Result = S0[(i << 2) | j];
+
+        // Right half with S1
+        // The 5th and 8th bits give the index of the row, the 6th and 7th the index of the column
+        i = ((input >> 2) & 0b10) | (input & 1);
+        j = (input >> 1) & 0b11;
+        int s1Result = S1[(i << 2) | j];
+
+        // Finally we gather the given results in a 4-bit word
+        return (s0Result << 2) | s1Result;
+    }
+
+    /**
+     * Performs a P4 permutation
+     * P4(k1, k2, k3, k4) = (k2, k4, k3, k1)
+     * @param input 4-bit word to transform
+     * @return 4-bit word resulting of the transformation
+     */
+    static int p4(int input) {
+        // This is an abitrary permutation, it needs to be done by hand
+        return ((input >> 2) & 1) << 3
+             | (input & 1) << 2
+             | ((input >> 1) & 1) << 1
+             | ((input >> 3) & 1);
+    }
+
+    /**
+     * Encryption transformation sub-function
+     * @param right right half of the byte to transform
+     * @param sk Subkey K1 or K2
+     * @return a sequence of 4 bits
+     */
+    static int f(int right, int sk) {
+        return p4(sboxTransform(ep(right) ^ sk));
+    }
+
+    /**
+     * fK transformation
+     * @param bits 8-bit sequence given by IP or RIP
+     * @param sk Subkey K1 or K2
+     * @return a sequence of 8 bits
+     */
+    static int fK(int bits, int sk) {
+        int left = (bits >> 4) & 0xF;
+        int right = bits & 0xF;
+
+        // = concat(left XOR f(right, SK), right)
+        return ((left ^ f(right, sk)) << 4) | right;
+    }
+
+    /**
+     * Swaps the two halves of a byte
+     * For exemple, 11110000 becomes 00001111
+     * @param input Byte to transform
+     * @return Byte resulting
+     */
+    static int sw(int input) {
+        return ((input & 0xF) << 4) | ((input >> 4) & 0xF);
+    }
+
+    /**
+     * Encrypts a data block
+     * @param block A plain byte to encrypt, in the bits 0 to 7
+     * @param K1 Subkey 1
+     * @param K2 Subkey 2
+     * @return The resulting byte, in the bits 0 to 7
+     */
+    static int encrypt(int block, int K1, int K2) {
+        return rip(fK(sw(fK(ip(block & 0xFF), K1)), K2));
+    }
+
+    /**
+     * Decrypts a data block
+     * @param block A byte to decrypt, in the bits 0 to 7
+     * @param K1 Subkey 1
+     * @param K2 Subkey 2
+     * @return The resulting plain byte, in the bits 0 to 7
+     */
+    static int decrypt(int block, int K1, int K2) {
+        return rip(fK(sw(fK(ip(block & 0xFF), K2)), K1));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * SDESInputStream.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream encrypting or decrypting the data as it is read from the underlying stream
+ * S-DES does not chain the blocks, so skip, mark and reset keep working as on the underlying stream.
+ */
+public class SDESInputStream extends FilterInputStream {
+    /**
+     * Cipher applied to the data
+     */
+    private final SDES sdes;
+
+    /**
+     * true to decrypt the data, false to encrypt it
+     */
+    private final boolean decrypt;
+
+    /**
+     * Instanciate a new stream
+     * @param in Underlying stream to read from
+     * @param sdes Cipher applied to the data
+     * @param decrypt true to decrypt the data, false to encrypt it
+     */
+    public SDESInputStream(InputStream in, SDES sdes, boolean decrypt) {
+        super(in);
+        this.sdes = sdes;
+        this.decrypt = decrypt;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = this.in.read();
+        if (c == -1)
+            return -1;
+
+        return (this.decrypt ? this.sdes.decrypt((byte)c) : this.sdes.encrypt((byte)c)) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = this.in.read(b, off, len);
+
+        // The bytes are transformed in place, in one batch
+        if (n > 0) {
+            if (this.decrypt)
+                this.sdes.decrypt(b, off, n, b, off);
+            else
+                this.sdes.encrypt(b, off, n, b, off);
+        }
+
+        return n;
+    }
+}
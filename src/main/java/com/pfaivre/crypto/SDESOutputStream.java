@@ -0,0 +1,127 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * SDESOutputStream.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Output stream encrypting or decrypting the data before it is written to the underlying stream
+ * The data given to write is never modified: it is transformed in an internal buffer, taken from a shared
+ * BufferPool and given back when the stream is closed.
+ */
+public class SDESOutputStream extends FilterOutputStream {
+    /**
+     * Cipher applied to the data
+     */
+    private final SDES sdes;
+
+    /**
+     * true to decrypt the data, false to encrypt it
+     */
+    private final boolean decrypt;
+
+    /**
+     * Size of the batches written at once
+     */
+    private final int bufferSize;
+
+    /**
+     * Shared pool the buffer is taken from
+     */
+    private final BufferPool pool;
+
+    /**
+     * Buffer taken from the pool, null once given back
+     */
+    private ByteBuffer pooled;
+
+    /**
+     * Array of the pooled buffer, receiving the transformed bytes before they are written
+     */
+    private byte[] buffer;
+
+    /**
+     * Instanciate a new stream with a buffer of SDES.DEFAULT_BUFFER_SIZE bytes
+     * @param out Underlying stream to write to
+     * @param sdes Cipher applied to the data
+     * @param decrypt true to decrypt the data, false to encrypt it
+     */
+    public SDESOutputStream(OutputStream out, SDES sdes, boolean decrypt) {
+        this(out, sdes, decrypt, SDES.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Instanciate a new stream
+     * @param out Underlying stream to write to
+     * @param sdes Cipher applied to the data
+     * @param decrypt true to decrypt the data, false to encrypt it
+     * @param bufferSize Size of the internal buffer, i.e. the largest batch written at once
+     */
+    public SDESOutputStream(OutputStream out, SDES sdes, boolean decrypt, int bufferSize) {
+        super(out);
+
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("The buffer size must be positive");
+
+        this.sdes = sdes;
+        this.decrypt = decrypt;
+        this.bufferSize = bufferSize;
+        this.pool = BufferPool.forSize(bufferSize);
+        this.pooled = this.pool.acquire(bufferSize);
+        this.buffer = this.pooled.array();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.out.write(this.decrypt ? this.sdes.decrypt((byte)b) : this.sdes.encrypt((byte)b));
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off > b.length - len)
+            throw new IndexOutOfBoundsException();
+
+        if (this.buffer == null)
+            throw new IOException("Stream closed");
+
+        // The bytes are transformed and written by batches of the size of the buffer
+        while (len > 0) {
+            int n = Math.min(len, this.bufferSize);
+
+            if (this.decrypt)
+                this.sdes.decrypt(b, off, n, this.buffer, 0);
+            else
+                this.sdes.encrypt(b, off, n, this.buffer, 0);
+            this.out.write(this.buffer, 0, n);
+
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Flushes and closes the underlying stream, and gives the buffer back to the pool
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (this.pooled != null) {
+                this.pool.release(this.pooled);
+                this.pooled = null;
+                this.buffer = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * SDES
+ * Pierre Faivre
+ *
+ * VectorTransformer.java
+ * Creation : 18/10/2026
+ * Last modification : 18/10/2026
+ */
+
+package com.pfaivre.crypto;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Substitution of byte arrays with the Vector API (jdk.incubator.vector, Java 17 and later)
+ * A vector of N lanes can only select among N bytes, so the 256-byte table is cut in 256 / N parts of N bytes.
+ * The low bits of each input byte select a byte in every part, and the high bits choose which part is kept:
+ * 4 selections and blends with 64 lanes (AVX-512), 8 with 32 lanes (AVX2), 16 with 16 lanes (SSE, NEON).
+ * Only loaded by BulkTransformer, through reflection, when the module is available.
+ */
+final class VectorTransformer extends BulkTransformer {
+    /**
+     * Widest vectors of the CPU
+     */
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    /**
+     * Number of bytes in a vector, and in each part of the table
+     */
+    private static final int LANES = SPECIES.length();
+
+    /**
+     * Number of low bits selecting a byte in a part
+     */
+    private static final int SHIFT = Integer.numberOfTrailingZeros(LANES);
+
+    /**
+     * Number of parts of the table
+     */
+    private static final int PARTS = 256 / LANES;
+
+    /**
+     * Instanciate the transformer
+     * @throws UnsupportedOperationException if the vectors of the CPU are too short for the table to be cut
+     */
+    public VectorTransformer() {
+        if (LANES < 16 || LANES > 256)
+            throw new UnsupportedOperationException(String.format("Vectors of %d bytes are not supported", LANES));
+    }
+
+    @Override
+    void transform(byte[] table, byte[] src, int off, int len, byte[] dst, int dstOff) {
+        int bound = SPECIES.loopBound(len);
+        int i = 0;
+
+        for ( ; i < bound ; i += LANES) {
+            ByteVector input = ByteVector.fromArray(SPECIES, src, off + i);
+            ByteVector index = input.and((byte)(LANES - 1));
+            ByteVector output = index.selectFrom(ByteVector.fromArray(SPECIES, table, 0));
+
+            if (PARTS > 1) {
+                ByteVector part = input.lanewise(VectorOperators.LSHR, SHIFT);
+                for (int p = 1 ; p < PARTS ; p++) {
+                    ByteVector selected = index.selectFrom(ByteVector.fromArray(SPECIES, table, p * LANES));
+                    output = output.blend(selected, part.eq((byte)p));
+                }
+            }
+
+            output.intoArray(dst, dstOff + i);
+        }
+
+        scalar(table, src, off + i, len - i, dst, dstOff + i);
+    }
+
+    @Override
+    String name() {
+        return String.format("vector (%d lanes)", LANES);
+    }
+}
@@ -0,0 +1,123 @@
+package com.pfaivre;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.pfaivre.crypto.SDES;
+
+import static org.junit.Assert.*;
+
+public class InputsTest {
+    @org.junit.Test
+    public void journals() throws Exception {
+        System.out.print("Testing that Inputs leaves the journals out...");
+
+        File directory = Files.createTempDirectory("sdes").toFile();
+        for (String name : new String[] {"a.txt", "a.txt" + SDES.JOURNAL_SUFFIX, "a.txt" + SDES.JOURNAL_TMP_SUFFIX})
+            Files.write(new File(directory, name).toPath(), new byte[] {1});
+
+        List<File> files = Inputs.collect(Collections.singletonList(directory.getPath()), null, true);
+        assertEquals(Collections.singletonList(new File(directory, "a.txt")), files);
+
+        files = Inputs.collect(Collections.singletonList(directory.getPath() + File.separator + "a.txt*"), null, false);
+        assertEquals(1, files.size());
+
+        System.out.println(" success");
+    }
+
+    /**
+     * Creates a tree of files in a new temporary directory
+     * @return The directory, holding b.txt, a.txt, sub/c.txt and sub/deep/d.bin
+     */
+    private static File tree() throws IOException {
+        File directory = Files.createTempDirectory("sdes").toFile();
+        for (String name : new String[] {"b.txt", "a.txt", "sub/c.txt", "sub/deep/d.bin"}) {
+            File file = new File(directory, name);
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), new byte[] {1});
+        }
+        return directory;
+    }
+
+    @org.junit.Test
+    public void directories() throws Exception {
+        System.out.print("Testing Inputs on directories...");
+
+        File directory = tree();
+
+        // Every file of the tree, sorted by path
+        List<File> files = Inputs.collect(Collections.singletonList(directory.getPath()), null, true);
+        assertEquals(Arrays.asList(new File(directory, "a.txt"), new File(directory, "b.txt"),
+                new File(directory, "sub/c.txt"), new File(directory, "sub/deep/d.bin")), files);
+
+        // A directory needs -r
+        try {
+            Inputs.collect(Collections.singletonList(directory.getPath()), null, false);
+            fail("A directory was accepted without -r");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("-r"));
+        }
+
+        try {
+            Inputs.collect(Collections.singletonList(new File(directory, "missing").getPath()), null, true);
+            fail("A missing file was accepted");
+        } catch (FileNotFoundException e) {
+            // expected
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void globs() throws Exception {
+        System.out.print("Testing Inputs on glob patterns...");
+
+        File directory = tree();
+        String prefix = directory.getPath() + File.separator;
+
+        // ** crosses the directories, * does not
+        List<File> files = Inputs.collect(Collections.singletonList(prefix + "**.txt"), null, false);
+        assertEquals(Arrays.asList(new File(directory, "a.txt"), new File(directory, "b.txt"),
+                new File(directory, "sub/c.txt")), files);
+
+        files = Inputs.collect(Collections.singletonList(prefix + "*.txt"), null, false);
+        assertEquals(Arrays.asList(new File(directory, "a.txt"), new File(directory, "b.txt")), files);
+
+        files = Inputs.collect(Collections.singletonList(prefix + "sub" + File.separator + "**"), null, false);
+        assertEquals(Arrays.asList(new File(directory, "sub/c.txt"), new File(directory, "sub/deep/d.bin")), files);
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void listFile() throws Exception {
+        System.out.print("Testing Inputs on a list file...");
+
+        File directory = tree();
+        String prefix = directory.getPath() + File.separator;
+        File list = File.createTempFile("sdes", ".list");
+
+        try {
+            // Blank lines and spaces are left out, a file listed twice is kept once at its first place
+            Files.write(list.toPath(), Arrays.asList(
+                    "  " + prefix + "sub" + File.separator + "c.txt  ",
+                    "",
+                    prefix + "*.txt",
+                    prefix + "b.txt"));
+
+            // The list comes after the other inputs
+            List<File> files = Inputs.collect(Collections.singletonList(prefix + "b.txt"), list.getPath(), false);
+            assertEquals(Arrays.asList(new File(directory, "b.txt"), new File(directory, "sub/c.txt"),
+                    new File(directory, "a.txt")), files);
+        } finally {
+            list.delete();
+        }
+
+        System.out.println(" success");
+    }
+}
@@ -0,0 +1,75 @@
+package com.pfaivre;
+
+import static org.junit.Assert.*;
+
+public class OptionsTest {
+    @org.junit.Test
+    public void parse() throws Options.UsageException {
+        System.out.print("Testing Options.parse...");
+
+        Options options = Options.parse(new String[] {"--decrypt", "-k", "0101010101", "-i", "a.txt", "--input", "-",
+                "-t", "4", "-v", "b.txt", "--", "-c.txt"});
+        assertTrue(options.decrypt);
+        assertEquals("0101010101", options.key);
+        assertEquals(2, options.inputFiles.size());
+        assertEquals("-", options.inputFiles.get(1));
+        assertEquals(4, options.threads);
+        assertTrue(options.verbose);
+        assertEquals(2, options.arguments.size());
+        assertEquals("-c.txt", options.arguments.get(1));
+        assertEquals(com.pfaivre.crypto.ChainedCipher.Mode.ECB, options.mode);
+
+        options = Options.parse(new String[] {"-k", "0101010101", "--mode", "ctr", "--iv", "10110011", "a.txt"});
+        assertEquals(com.pfaivre.crypto.ChainedCipher.Mode.CTR, options.mode);
+        assertEquals("10110011", options.iv);
+
+        // The server takes the key of each request
+        options = Options.parse(new String[] {"--serve", "0"});
+        assertEquals(0, options.serve);
+        assertNull(options.key);
+        assertNull(options.root);
+
+        options = Options.parse(new String[] {"--serve", "0", "--root", "data", "--secret", "server.secret"});
+        assertEquals("data", options.root);
+        assertEquals("server.secret", options.secretFile);
+
+        options = Options.parse(new String[] {"-k", "0101010101", "--connect", "4000", "-j", "8", "a.txt"});
+        assertEquals(4000, options.connect);
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void errors() {
+        System.out.print("Testing the errors of Options.parse...");
+
+        String[][] invalid = {
+            {"-i", "a.txt"},                              // no key
+            {"-k", "0101010101", "-x"},                   // unknown option
+            {"-k"},                                       // missing value
+            {"-k", "0101010101", "-t", "four"},           // not a number
+            {"-k", "0101010101", "-e", "-d"},             // forbidden pair
+            {"-k", "0101010101", "--mmap", "--in-place"}, // forbidden pair given by long names
+            {"-k", "0101010101", "--mode", "xts"},        // unknown mode
+            {"-k", "0101010101", "--mode", "cbc"},        // chained mode without an iv
+            {"-k", "0101010101", "--mode", "ctr", "--iv", "00000000", "-m"}, // chained mode mapped in memory
+            {"--connect", "4000", "a.txt"},               // client without a key
+            {"--serve", "4000", "--connect", "4000"},     // forbidden pair
+            {"-k", "0101010101", "--connect", "4000", "-t", "4"}, // the server does not split the files
+            {"-k", "0101010101", "--connect", "4000", "--root", "data"}, // the root is set by the server
+            {"-k", "0101010101", "--root", "data", "a.txt"},             // root without a server
+            {"-k", "0101010101", "--secret", "server.secret", "a.txt"},  // secret without a server
+        };
+
+        for (String[] args : invalid) {
+            try {
+                Options.parse(args);
+                fail("Invalid command line accepted: " + java.util.Arrays.toString(args));
+            } catch (Options.UsageException e) {
+                // expected
+            }
+        }
+
+        System.out.println(" success");
+    }
+}
@@ -0,0 +1,121 @@
+package com.pfaivre.crypto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class BufferPoolTest {
+    @org.junit.Test
+    public void acquireRelease() {
+        System.out.print("Testing BufferPool acquire and release...");
+
+        BufferPool pool = BufferPool.heap(1024, 2);
+
+        ByteBuffer first = pool.acquire(100);
+        assertTrue(first.hasArray());
+        assertEquals(0, first.position());
+        assertEquals(100, first.limit());
+        assertEquals(1024, first.capacity());
+        assertEquals(0, pool.getHits());
+        assertEquals(1, pool.getMisses());
+
+        pool.release(first);
+        ByteBuffer second = pool.acquire(1024);
+        assertSame(first, second);
+        assertEquals(1024, second.limit());
+        assertEquals(1, pool.getHits());
+
+        // Bigger than the buffers: allocated, and not kept when given back
+        ByteBuffer big = pool.acquire(4096);
+        assertEquals(4096, big.capacity());
+        pool.release(big);
+        assertEquals(0, pool.getFree());
+
+        // A buffer given back twice is only kept once
+        pool.release(second);
+        pool.release(second);
+        assertEquals(1, pool.getFree());
+
+        // Buffers the pool did not hand out are ignored, even of the right size
+        pool.release(ByteBuffer.allocate(1024));
+        assertEquals(1, pool.getFree());
+
+        // A discarded buffer is not taken back
+        ByteBuffer discarded = pool.acquire(10);
+        pool.discard(discarded);
+        pool.release(discarded);
+        assertEquals(0, pool.getFree());
+
+        // No more than the capacity is kept
+        ByteBuffer[] buffers = {pool.acquire(10), pool.acquire(10), pool.acquire(10)};
+        for (ByteBuffer buffer : buffers)
+            pool.release(buffer);
+        assertEquals(2, pool.getFree());
+
+        // Buffers of another pool are ignored
+        BufferPool other = BufferPool.heap(1024, 2);
+        ByteBuffer buffer = other.acquire(512);
+        other.release(pool.acquire(1024));
+        assertEquals(0, other.getFree());
+        other.release(buffer);
+        assertEquals(1, other.getFree());
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void sizeClasses() {
+        System.out.print("Testing the size classes of the shared BufferPools...");
+
+        // A stream chunk does not take a buffer of a file chunk
+        assertSame(BufferPool.getDefault(), BufferPool.forSize(SDES.DEFAULT_BUFFER_SIZE));
+        assertSame(BufferPool.getDefault(), BufferPool.forSize(100));
+        assertSame(BufferPool.getChunks(), BufferPool.forSize(SDES.DEFAULT_BUFFER_SIZE + 1));
+
+        BufferPool pool = BufferPool.forSize(SDES.DEFAULT_BUFFER_SIZE);
+        ByteBuffer stream = pool.acquire(SDES.DEFAULT_BUFFER_SIZE);
+        assertEquals(SDES.DEFAULT_BUFFER_SIZE, stream.capacity());
+        pool.release(stream);
+
+        pool = BufferPool.forSize(BufferPool.CHUNK_BUFFER_SIZE);
+        ByteBuffer chunk = pool.acquire(BufferPool.CHUNK_BUFFER_SIZE);
+        assertEquals(BufferPool.CHUNK_BUFFER_SIZE, chunk.capacity());
+        pool.release(chunk);
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void reusedByStreams() throws IOException {
+        System.out.print("Testing the reuse of the default BufferPool by the streams...");
+
+        SDES sdes = new SDES("0111010001");
+        byte[] plain = new byte[5000];
+        BufferPool pool = BufferPool.getDefault();
+
+        // The first run may allocate, the next ones take the buffer given back
+        sdes.encryptStream(new ByteArrayInputStream(plain), new ByteArrayOutputStream(), 1000);
+        long misses = pool.getMisses();
+        for (int i = 0 ; i < 10 ; i++)
+            sdes.encryptStream(new ByteArrayInputStream(plain), new ByteArrayOutputStream(), 1000);
+        assertEquals(misses, pool.getMisses());
+
+        // The output stream gives its buffer back when closed, once
+        new SDESOutputStream(new ByteArrayOutputStream(), sdes, false, 1000).close();
+        misses = pool.getMisses();
+        for (int i = 0 ; i < 10 ; i++) {
+            ByteArrayOutputStream crypted = new ByteArrayOutputStream();
+            SDESOutputStream output = new SDESOutputStream(crypted, sdes, false, 1000);
+            output.write(plain);
+            output.close();
+            output.close();
+            assertEquals(plain.length, crypted.size());
+        }
+        assertEquals(misses, pool.getMisses());
+
+        System.out.println(" success");
+    }
+}
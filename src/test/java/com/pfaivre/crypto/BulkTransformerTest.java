@@ -0,0 +1,78 @@
+package com.pfaivre.crypto;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assume;
+
+import static org.junit.Assert.*;
+
+public class BulkTransformerTest {
+    /**
+     * Value of the bytes around the written range, which must stay untouched
+     */
+    private static final byte GUARD = (byte)0xA5;
+
+    @org.junit.Test
+    public void allKeys() {
+        System.out.print("Testing the bulk transform of " + BulkTransformer.INSTANCE.name() + " with every key...");
+
+        byte[] plain = new byte[4099];
+        new Random(18).nextBytes(plain);
+        byte[] crypted = new byte[plain.length];
+        byte[] decrypted = new byte[plain.length];
+
+        for (int key = 0 ; key < 1024 ; key++) {
+            SDES sdes = SDES.forKey(key);
+            sdes.encrypt(plain, 0, plain.length, crypted, 0);
+            for (int i = 0 ; i < plain.length ; i++)
+                assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+
+            sdes.decrypt(crypted, 0, crypted.length, decrypted, 0);
+            assertArrayEquals(plain, decrypted);
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void vector() throws Exception {
+        BulkTransformer vector;
+        try {
+            vector = (BulkTransformer)Class.forName("com.pfaivre.crypto.VectorTransformer").getDeclaredConstructor().newInstance();
+        } catch (Exception | LinkageError e) {
+            vector = null;
+        }
+        Assume.assumeNotNull(vector);
+
+        System.out.print("Testing " + vector.name() + " against SDES.encrypt...");
+
+        SDES sdes = new SDES("0111010001");
+        byte[] table = new byte[256];
+        for (int i = 0 ; i < table.length ; i++)
+            table[i] = sdes.encrypt((byte)i);
+
+        Random random = new Random(180);
+        byte[] src = new byte[1000];
+        random.nextBytes(src);
+
+        // Every length around the size of the vectors, at unaligned offsets
+        for (int len = 0 ; len < 300 ; len++) {
+            int off = random.nextInt(src.length - len);
+            byte[] dst = new byte[len + 7];
+            Arrays.fill(dst, GUARD);
+            vector.transform(table, src, off, len, dst, 5);
+
+            for (int i = 0 ; i < len ; i++)
+                assertEquals(sdes.encrypt(src[off + i]), dst[5 + i]);
+
+            // Nothing is written before or after the range
+            for (int i = 0 ; i < 5 ; i++)
+                assertEquals(GUARD, dst[i]);
+            for (int i = len + 5 ; i < dst.length ; i++)
+                assertEquals(GUARD, dst[i]);
+        }
+
+        System.out.println(" success");
+    }
+}
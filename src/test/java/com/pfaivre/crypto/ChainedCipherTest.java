@@ -0,0 +1,155 @@
+package com.pfaivre.crypto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ChainedCipherTest {
+    @org.junit.Test
+    public void definitions() {
+        System.out.print("Testing the ChainedCipher modes against their definitions...");
+
+        SDES sdes = new SDES("0111010001");
+        byte iv = (byte)0xB3;
+        byte[] plain = new byte[600];
+        new Random(17).nextBytes(plain);
+        byte[] crypted = new byte[plain.length];
+
+        new ChainedCipher(sdes, ChainedCipher.Mode.CBC, iv).encrypt(plain, 0, plain.length, crypted, 0);
+        byte previous = iv;
+        for (int i = 0 ; i < plain.length ; i++) {
+            previous = sdes.encrypt((byte)(plain[i] ^ previous));
+            assertEquals(previous, crypted[i]);
+        }
+
+        new ChainedCipher(sdes, ChainedCipher.Mode.OFB, iv).encrypt(plain, 0, plain.length, crypted, 0);
+        byte stream = iv;
+        for (int i = 0 ; i < plain.length ; i++) {
+            stream = sdes.encrypt(stream);
+            assertEquals((byte)(plain[i] ^ stream), crypted[i]);
+        }
+
+        new ChainedCipher(sdes, ChainedCipher.Mode.CTR, iv).encrypt(plain, 0, plain.length, crypted, 0);
+        for (int i = 0 ; i < plain.length ; i++)
+            assertEquals((byte)(plain[i] ^ sdes.encrypt((byte)(iv + i))), crypted[i]);
+
+        new ChainedCipher(sdes, ChainedCipher.Mode.ECB, iv).encrypt(plain, 0, plain.length, crypted, 0);
+        for (int i = 0 ; i < plain.length ; i++)
+            assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void repeatedBytes() {
+        System.out.print("Testing that the chained modes hide repeated bytes...");
+
+        byte[] plain = new byte[16];
+        byte[] crypted = new byte[plain.length];
+
+        for (ChainedCipher.Mode mode : new ChainedCipher.Mode[] {ChainedCipher.Mode.CBC, ChainedCipher.Mode.CTR}) {
+            new ChainedCipher(new SDES("0111010001"), mode, (byte)0x42).encrypt(plain, 0, plain.length, crypted, 0);
+            java.util.Set<Byte> distinct = new java.util.HashSet<>();
+            for (byte b : crypted)
+                distinct.add(b);
+            assertTrue(distinct.size() > 1);
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void inPlaceAndStreams() throws IOException {
+        System.out.print("Testing ChainedCipher in place and over streams...");
+
+        SDES sdes = new SDES("1100110011");
+        byte[] plain = new byte[10000];
+        new Random(3).nextBytes(plain);
+
+        for (ChainedCipher.Mode mode : ChainedCipher.Mode.values()) {
+            ChainedCipher cipher = new ChainedCipher(sdes, mode, (byte)0x5A);
+
+            byte[] expected = new byte[plain.length];
+            cipher.encrypt(plain, 0, plain.length, expected, 0);
+
+            byte[] buffer = plain.clone();
+            cipher.encrypt(buffer, 0, buffer.length, buffer, 0);
+            assertArrayEquals(expected, buffer);
+            cipher.decrypt(buffer, 0, buffer.length, buffer, 0);
+            assertArrayEquals(plain, buffer);
+
+            // Chunks of 333 bytes, so the state is carried from one chunk to the next
+            ByteArrayOutputStream crypted = new ByteArrayOutputStream();
+            cipher.encryptStream(new ByteArrayInputStream(plain), crypted, 333);
+            assertArrayEquals(expected, crypted.toByteArray());
+
+            ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+            cipher.decryptStream(new ByteArrayInputStream(crypted.toByteArray()), decrypted, 333);
+            assertArrayEquals(plain, decrypted.toByteArray());
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void parallelFiles() throws IOException {
+        System.out.print("Testing ChainedCipher files on several threads...");
+
+        SDES sdes = new SDES("0111010001");
+        // Not a multiple of the chunk size, so the last chunk is a short one
+        byte[] plain = new byte[100123];
+        new Random(5).nextBytes(plain);
+
+        File plainFile = File.createTempFile("sdes", ".txt");
+        File cryptedFile = File.createTempFile("sdes", ".enc.txt");
+        File decryptedFile = File.createTempFile("sdes", ".dec.txt");
+
+        try {
+            Files.write(plainFile.toPath(), plain);
+
+            for (ChainedCipher.Mode mode : ChainedCipher.Mode.values()) {
+                ChainedCipher sequential = new ChainedCipher(sdes, mode, (byte)0x81);
+                ChainedCipher parallel = new ChainedCipher(sdes, mode, (byte)0x81, 4, 1000);
+
+                byte[] expected = new byte[plain.length];
+                sequential.encrypt(plain, 0, plain.length, expected, 0);
+
+                parallel.encryptFile(plainFile, cryptedFile);
+                assertArrayEquals(expected, Files.readAllBytes(cryptedFile.toPath()));
+
+                parallel.decryptFile(cryptedFile, decryptedFile);
+                assertArrayEquals(plain, Files.readAllBytes(decryptedFile.toPath()));
+            }
+        } finally {
+            plainFile.delete();
+            cryptedFile.delete();
+            decryptedFile.delete();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void parseIv() {
+        System.out.print("Testing ChainedCipher.parseIv...");
+
+        assertEquals((byte)0xB3, ChainedCipher.parseIv("10110011"));
+        assertEquals((byte)0, ChainedCipher.parseIv("00000000"));
+
+        for (String iv : new String[] {"1011001", "101100111", "1011001a", null}) {
+            try {
+                ChainedCipher.parseIv(iv);
+                fail("Invalid vector accepted: " + iv);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+
+        System.out.println(" success");
+    }
+}
@@ -0,0 +1,104 @@
+package com.pfaivre.crypto;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CipherMetricsTest {
+    @org.junit.Test
+    public void counters() throws IOException {
+        System.out.print("Testing CipherMetrics counters and listeners...");
+
+        CipherMetrics metrics = CipherMetrics.getInstance();
+        final List<String> events = new ArrayList<>();
+        CipherMetrics.Listener listener = new CipherMetrics.Listener() {
+            @Override
+            public void completed(File file, boolean decrypt, long bytes, long nanos) {
+                events.add((decrypt ? "decrypted " : "encrypted ") + bytes);
+            }
+
+            @Override
+            public void failed(File file, boolean decrypt, Throwable e) {
+                events.add("failed " + file.getName());
+            }
+        };
+
+        File plainFile = File.createTempFile("sdes", ".txt");
+        File cryptedFile = File.createTempFile("sdes", ".enc.txt");
+        File missingFile = new File(plainFile.getPath() + ".missing");
+
+        metrics.addListener(listener);
+        try {
+            Files.write(plainFile.toPath(), new byte[1000]);
+            SDES sdes = new SDES("0111010001");
+
+            long encrypted = metrics.getBytesEncrypted();
+            long decrypted = metrics.getBytesDecrypted();
+            long operations = metrics.getOperations();
+            long failures = metrics.getFailures();
+
+            sdes.encryptFile(plainFile, cryptedFile);
+            sdes.decryptFileMapped(cryptedFile, plainFile);
+
+            try {
+                sdes.encryptFile(missingFile, cryptedFile);
+                fail("A missing file was accepted");
+            } catch (FileNotFoundException e) {
+                // expected
+            }
+
+            // A runtime exception is a failure too
+            try {
+                sdes.encryptFile(plainFile, cryptedFile, SDES.DEFAULT_BUFFER_SIZE, new ProgressListener() {
+                    @Override
+                    public void progress(long bytes) {
+                        throw new IllegalStateException("Stopped");
+                    }
+                });
+                fail("The exception of the listener was lost");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+
+            assertEquals(encrypted + 1000, metrics.getBytesEncrypted());
+            assertEquals(decrypted + 1000, metrics.getBytesDecrypted());
+            assertEquals(operations + 2, metrics.getOperations());
+            assertEquals(failures + 2, metrics.getFailures());
+            assertTrue(metrics.getThroughput() > 0);
+            assertTrue(metrics.latencyPercentile(99) > 0);
+
+            assertEquals(4, events.size());
+            assertEquals("encrypted 1000", events.get(0));
+            assertEquals("decrypted 1000", events.get(1));
+            assertEquals("failed " + missingFile.getName(), events.get(2));
+            assertEquals("failed " + plainFile.getName(), events.get(3));
+        } finally {
+            metrics.removeListener(listener);
+            plainFile.delete();
+            cryptedFile.delete();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void mbean() throws Exception {
+        System.out.print("Testing the CipherMetrics MBean...");
+
+        CipherMetrics.registerMBean();
+        // A second registration does nothing
+        CipherMetrics.registerMBean();
+
+        javax.management.MBeanServer server = java.lang.management.ManagementFactory.getPlatformMBeanServer();
+        javax.management.ObjectName name = new javax.management.ObjectName(CipherMetrics.OBJECT_NAME);
+        assertEquals(CipherMetrics.getInstance().getOperations(), server.getAttribute(name, "Operations"));
+        assertEquals(32, ((long[])server.getAttribute(name, "LatencyHistogram")).length);
+
+        System.out.println(" success");
+    }
+}
@@ -0,0 +1,201 @@
+package com.pfaivre.crypto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CipherServerTest {
+    /**
+     * Starts a server on any free port, serving on a thread of its own
+     * @param secretFile File receiving the secret of the server
+     * @param root Root directory of the FILE requests, or null
+     */
+    private static CipherServer start(File secretFile, File root) throws IOException {
+        final CipherServer server = new CipherServer(0, secretFile, root);
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    server.serve();
+                } catch (IOException e) {
+                    // The test fails on its own requests
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+
+        return server;
+    }
+
+    @org.junit.Test
+    public void streams() throws IOException {
+        System.out.print("Testing the streams of CipherServer...");
+
+        int key = 0b0111010001;
+        SDES sdes = SDES.forKey(key);
+        File secretFile = new File(Files.createTempDirectory("sdes").toFile(), "secret");
+        CipherServer server = start(secretFile, null);
+        CipherClient client = new CipherClient(server.getPort(), secretFile);
+
+        try {
+            Random random = new Random(24);
+
+            // Empty, small, and larger than a frame, on the same connection
+            for (int size : new int[] {0, 1, 5000, 3 * CipherProtocol.MAX_FRAME_SIZE + 17}) {
+                byte[] plain = new byte[size];
+                random.nextBytes(plain);
+
+                ByteArrayOutputStream crypted = new ByteArrayOutputStream();
+                assertEquals(size, client.encryptStream(key, new ByteArrayInputStream(plain), crypted));
+
+                byte[] expected = new byte[size];
+                sdes.encrypt(plain, 0, size, expected, 0);
+                assertArrayEquals(expected, crypted.toByteArray());
+
+                ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+                assertEquals(size, client.decryptStream(key, new ByteArrayInputStream(crypted.toByteArray()), decrypted));
+                assertArrayEquals(plain, decrypted.toByteArray());
+            }
+
+            try {
+                client.encryptStream(1024, new ByteArrayInputStream(new byte[1]), new ByteArrayOutputStream());
+                fail("An invalid key was accepted");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+
+            // Without a root directory, the server reads and writes no file
+            try {
+                client.encryptFile(key, secretFile, new File(secretFile.getParentFile(), "crypted"));
+                fail("A file request was accepted without a root directory");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("root"));
+            }
+        } finally {
+            client.close();
+            server.close();
+        }
+        assertFalse(secretFile.exists());
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void files() throws IOException {
+        System.out.print("Testing the files of CipherServer...");
+
+        int key = 0b1010000010;
+        SDES sdes = SDES.forKey(key);
+        File directory = Files.createTempDirectory("sdes").toFile();
+        File outside = Files.createTempDirectory("sdes").toFile();
+        File secretFile = new File(outside, "secret");
+        CipherServer server = start(secretFile, directory);
+        CipherClient client = new CipherClient(server.getPort(), secretFile);
+
+        try {
+            byte[] plain = new byte[200000];
+            new Random(25).nextBytes(plain);
+            File plainFile = new File(directory, "plain.txt");
+            File cryptedFile = new File(directory, "crypted.txt");
+            File decryptedFile = new File(directory, "decrypted.txt");
+            Files.write(plainFile.toPath(), plain);
+
+            assertEquals(plain.length, client.encryptFile(key, plainFile, cryptedFile));
+            byte[] crypted = Files.readAllBytes(cryptedFile.toPath());
+            for (int i = 0 ; i < plain.length ; i++)
+                assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+
+            // An error of the server does not break the connection
+            try {
+                client.decryptFile(key, new File(directory, "missing"), decryptedFile);
+                fail("A missing file was accepted");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("missing"));
+            }
+
+            assertEquals(plain.length, client.decryptFile(key, cryptedFile, decryptedFile));
+            assertArrayEquals(plain, Files.readAllBytes(decryptedFile.toPath()));
+
+            // Nothing outside of the root, even through .. or a link
+            File link = new File(directory, "link");
+            Files.createSymbolicLink(link.toPath(), outside.toPath());
+            File[][] escapes = {
+                {secretFile, decryptedFile},
+                {new File(directory, "../" + outside.getName() + "/secret"), decryptedFile},
+                {new File(link, "secret"), decryptedFile},
+                {plainFile, new File(outside, "crypted.txt")},
+                {plainFile, new File(link, "crypted.txt")},
+            };
+            for (File[] files : escapes) {
+                try {
+                    client.encryptFile(key, files[0], files[1]);
+                    fail("A file outside of the root was accepted: " + files[0] + " -> " + files[1]);
+                } catch (IOException e) {
+                    assertTrue(e.getMessage().contains("outside"));
+                }
+            }
+            assertFalse(new File(outside, "crypted.txt").exists());
+        } finally {
+            client.close();
+            server.close();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void secret() throws IOException {
+        System.out.print("Testing the secret of CipherServer...");
+
+        File directory = Files.createTempDirectory("sdes").toFile();
+        File secretFile = new File(directory, "secret");
+        CipherServer server = start(secretFile, directory);
+
+        try {
+            Path secretPath = secretFile.toPath();
+            assertEquals(CipherProtocol.SECRET_SIZE, Files.size(secretPath));
+            if (secretPath.getFileSystem().supportedFileAttributeViews().contains("posix"))
+                assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(secretPath)));
+
+            // Any other secret is refused, for the streams and the files
+            byte[] wrong = Files.readAllBytes(secretPath);
+            wrong[0] ^= 1;
+            File wrongFile = new File(directory, "wrong");
+            Files.write(wrongFile.toPath(), wrong);
+
+            CipherClient client = new CipherClient(server.getPort(), wrongFile);
+            try {
+                client.encryptStream(0, new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream());
+                fail("A wrong secret was accepted");
+            } catch (IOException e) {
+                assertEquals("Invalid secret", e.getMessage());
+            } finally {
+                client.close();
+            }
+
+            client = new CipherClient(server.getPort(), wrongFile);
+            try {
+                client.encryptFile(0, wrongFile, new File(directory, "crypted"));
+                fail("A wrong secret was accepted");
+            } catch (IOException e) {
+                assertEquals("Invalid secret", e.getMessage());
+            } finally {
+                client.close();
+            }
+            assertFalse(new File(directory, "crypted").exists());
+        } finally {
+            server.close();
+        }
+
+        System.out.println(" success");
+    }
+}
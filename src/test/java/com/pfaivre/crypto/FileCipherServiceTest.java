@@ -0,0 +1,141 @@
+package com.pfaivre.crypto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FileCipherServiceTest {
+    @org.junit.Test
+    public void manySmallFiles() throws Exception {
+        System.out.print("Testing FileCipherService on many small files...");
+
+        SDES sdes = new SDES("0111010001");
+        File directory = Files.createTempDirectory("sdes").toFile();
+        Random random = new Random(23);
+        List<byte[]> contents = new ArrayList<>();
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+
+        FileCipherService service = new FileCipherService(sdes, 8);
+        try {
+            for (int i = 0 ; i < 200 ; i++) {
+                // Mostly small files, and a few bigger than a chunk
+                byte[] plain = new byte[i % 50 == 0 ? 200000 : random.nextInt(3000)];
+                random.nextBytes(plain);
+                contents.add(plain);
+
+                File plainFile = new File(directory, i + ".txt");
+                Files.write(plainFile.toPath(), plain);
+                results.add(service.encryptFile(plainFile, new File(directory, i + ".enc")));
+            }
+
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get();
+
+            for (int i = 0 ; i < contents.size() ; i++) {
+                byte[] plain = contents.get(i);
+                byte[] crypted = Files.readAllBytes(new File(directory, i + ".enc").toPath());
+                assertEquals(plain.length, (long)results.get(i).get());
+                assertEquals(plain.length, crypted.length);
+                for (int j = 0 ; j < plain.length ; j++)
+                    assertEquals(sdes.encrypt(plain[j]), crypted[j]);
+            }
+
+            // A missing file fails its own future only
+            CompletableFuture<Long> missing = service.decryptFile(new File(directory, "missing"), new File(directory, "out"));
+            try {
+                missing.get();
+                fail("A missing file was accepted");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        } finally {
+            service.close();
+            for (File file : directory.listFiles())
+                file.delete();
+            directory.delete();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void concurrencyLimit() throws Exception {
+        System.out.print("Testing the concurrency limit of FileCipherService...");
+
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger highest = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        FileCipherService service = new FileCipherService(new SDES("0111010001"), 3);
+        try {
+            for (int i = 0 ; i < 30 ; i++) {
+                final int task = i;
+                results.add(service.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws InterruptedException {
+                        int now = running.incrementAndGet();
+                        int seen;
+                        while ((seen = highest.get()) < now && !highest.compareAndSet(seen, now))
+                            ;
+                        Thread.sleep(5);
+                        running.decrementAndGet();
+                        return task;
+                    }
+                }));
+            }
+
+            for (int i = 0 ; i < results.size() ; i++)
+                assertEquals(i, (int)results.get(i).get());
+            assertTrue(highest.get() <= 3);
+        } finally {
+            service.close();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void taskError() throws Exception {
+        System.out.print("Testing an error thrown by a task of FileCipherService...");
+
+        FileCipherService service = new FileCipherService(new SDES("0111010001"), 1);
+        try {
+            CompletableFuture<Integer> failed = service.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    throw new Error("simulated");
+                }
+            });
+
+            try {
+                failed.get(10, TimeUnit.SECONDS);
+                fail("An error was not reported");
+            } catch (ExecutionException e) {
+                assertEquals("simulated", e.getCause().getMessage());
+                assertTrue(e.getCause() instanceof Error);
+            }
+
+            // The permit was given back
+            CompletableFuture<Integer> next = service.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return 1;
+                }
+            });
+            assertEquals(1, (int)next.get(10, TimeUnit.SECONDS));
+        } finally {
+            service.close();
+        }
+
+        System.out.println(" success");
+    }
+}
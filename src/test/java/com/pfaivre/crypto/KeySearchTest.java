@@ -0,0 +1,78 @@
+package com.pfaivre.crypto;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class KeySearchTest {
+    private static byte[] encrypt(String key, byte[] plaintext) {
+        byte[] ciphertext = new byte[plaintext.length];
+        new SDES(key).encrypt(plaintext, 0, plaintext.length, ciphertext, 0);
+        return ciphertext;
+    }
+
+    @org.junit.Test
+    public void findKeys() {
+        System.out.print("Testing findKeys and findFirstKey...");
+
+        byte[] plaintext = "Known plaintext attack".getBytes(StandardCharsets.US_ASCII);
+        byte[] ciphertext = encrypt("0111010001", plaintext);
+
+        KeySearch search = new KeySearch(4);
+        try {
+            int[] keys = search.findKeys(plaintext, ciphertext);
+            assertTrue(keys.length >= 1);
+            boolean found = false;
+            for (int key : keys) {
+                assertTrue(KeySearch.isKey(key, plaintext, ciphertext));
+                found |= SDES.keyToString(key).equals("0111010001");
+            }
+            assertTrue(found);
+
+            int key = search.findFirstKey(plaintext, ciphertext);
+            assertTrue(KeySearch.isKey(key, plaintext, ciphertext));
+
+            // No key can encrypt two identical bytes into two different ones
+            assertEquals(-1, search.findFirstKey(new byte[] {1, 1}, new byte[] {2, 3}));
+            assertEquals(0, search.findKeys(new byte[] {1, 1}, new byte[] {2, 3}).length);
+        } finally {
+            search.close();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void rankKeys() {
+        System.out.print("Testing rankKeys...");
+
+        byte[] plaintext = "the quick brown fox jumps over the lazy dog and then some more text to score"
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] ciphertext = encrypt("1010000010", plaintext);
+
+        // Counts the lower case letters and spaces
+        KeySearch.Scorer scorer = new KeySearch.Scorer() {
+            @Override
+            public double score(byte[] candidate, int length) {
+                int score = 0;
+                for (int i = 0 ; i < length ; i++)
+                    if ((candidate[i] >= 'a' && candidate[i] <= 'z') || candidate[i] == ' ')
+                        score++;
+                return score;
+            }
+        };
+
+        KeySearch search = new KeySearch(1);
+        try {
+            int[] best = search.rankKeys(ciphertext, scorer, 3);
+            assertEquals(3, best.length);
+            byte[] decrypted = new byte[ciphertext.length];
+            SDES.forKey(best[0]).decrypt(ciphertext, 0, ciphertext.length, decrypted, 0);
+            assertArrayEquals(plaintext, decrypted);
+        } finally {
+            search.close();
+        }
+
+        System.out.println(" success");
+    }
+}
@@ -0,0 +1,86 @@
+package com.pfaivre.crypto;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MultiKeyCipherTest {
+    @org.junit.Test
+    public void allKeys() {
+        System.out.print("Testing MultiKeyCipher on all the keys...");
+
+        MultiKeyCipher cipher = MultiKeyCipher.allKeys();
+        assertEquals(1024, cipher.getKeys().length);
+
+        // Larger than a tile, so the tiles are checked too
+        byte[] plain = new byte[MultiKeyCipher.TILE_SIZE * 2 + 100];
+        new Random(25).nextBytes(plain);
+
+        byte[][] crypted = cipher.encrypt(plain);
+        byte[] interleaved = new byte[plain.length * 1024];
+        cipher.encryptInterleaved(plain, 0, plain.length, interleaved, 0);
+        byte[] expected = new byte[plain.length];
+
+        for (int key = 0 ; key < 1024 ; key++) {
+            SDES sdes = new SDES(SDES.keyToString(key));
+            sdes.encrypt(plain, 0, plain.length, expected, 0);
+            assertArrayEquals(expected, crypted[key]);
+
+            for (int i = 0 ; i < plain.length ; i += 997)
+                assertEquals(expected[i], interleaved[i * 1024 + key]);
+        }
+
+        byte[][] decrypted = cipher.decrypt(crypted[0]);
+        assertArrayEquals(plain, decrypted[0]);
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void someKeys() {
+        System.out.print("Testing MultiKeyCipher on some keys...");
+
+        int[] keys = {0b0111010001, 0b1010000010, 0b0111010001};
+        MultiKeyCipher cipher = new MultiKeyCipher(keys);
+
+        byte[] crypted = new byte[20];
+        for (int i = 0 ; i < crypted.length ; i++)
+            crypted[i] = (byte)(i * 13);
+
+        // Ranges within bigger arrays
+        byte[][] plain = new byte[keys.length][30];
+        cipher.decrypt(crypted, 5, 10, plain, 3);
+        byte[] interleaved = new byte[40];
+        cipher.decryptInterleaved(crypted, 5, 10, interleaved, 2);
+
+        for (int k = 0 ; k < keys.length ; k++) {
+            SDES sdes = SDES.forKey(keys[k]);
+            for (int i = 0 ; i < 10 ; i++) {
+                assertEquals(sdes.decrypt(crypted[5 + i]), plain[k][3 + i]);
+                assertEquals(sdes.decrypt(crypted[5 + i]), interleaved[2 + i * keys.length + k]);
+            }
+        }
+        assertArrayEquals(plain[0], plain[2]);
+
+        try {
+            new MultiKeyCipher(0, 1024);
+            fail("An invalid key was accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            cipher.encrypt(crypted, 0, 20, new byte[2][20], 0);
+            fail("Missing output arrays were accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            cipher.encryptInterleaved(crypted, 0, 20, new byte[59], 0);
+            fail("A too short output was accepted");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        System.out.println(" success");
+    }
+}
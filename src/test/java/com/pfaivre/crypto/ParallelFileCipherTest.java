@@ -0,0 +1,61 @@
+package com.pfaivre.crypto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParallelFileCipherTest {
+    @org.junit.Test
+    public void encryptDecryptFile() throws IOException {
+        System.out.print("Testing parallel encryptFile and decryptFile...");
+
+        SDES sdes = new SDES("0111010001");
+        // Not a multiple of the chunk size, so the last chunk is a short one
+        byte[] plain = new byte[100123];
+        new Random(5).nextBytes(plain);
+
+        File plainFile = File.createTempFile("sdes", ".txt");
+        File cryptedFile = File.createTempFile("sdes", ".enc.txt");
+        File decryptedFile = File.createTempFile("sdes", ".dec.txt");
+
+        try {
+            Files.write(plainFile.toPath(), plain);
+
+            new ParallelFileCipher(sdes, 4, 1000).encryptFile(plainFile, cryptedFile);
+            byte[] crypted = Files.readAllBytes(cryptedFile.toPath());
+            assertEquals(plain.length, crypted.length);
+            for (int i = 0 ; i < plain.length ; i++)
+                assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+
+            new ParallelFileCipher(sdes, 3).decryptFile(cryptedFile, decryptedFile);
+            assertArrayEquals(plain, Files.readAllBytes(decryptedFile.toPath()));
+        } finally {
+            plainFile.delete();
+            cryptedFile.delete();
+            decryptedFile.delete();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void emptyFile() throws IOException {
+        System.out.print("Testing parallel encryptFile on an empty file...");
+
+        File plainFile = File.createTempFile("sdes", ".txt");
+        File cryptedFile = File.createTempFile("sdes", ".enc.txt");
+
+        try {
+            new ParallelFileCipher(new SDES("0111010001"), 4).encryptFile(plainFile, cryptedFile);
+            assertEquals(0, cryptedFile.length());
+        } finally {
+            plainFile.delete();
+            cryptedFile.delete();
+        }
+
+        System.out.println(" success");
+    }
+}
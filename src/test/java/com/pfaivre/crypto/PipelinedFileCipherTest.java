@@ -0,0 +1,82 @@
+package com.pfaivre.crypto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PipelinedFileCipherTest {
+    @org.junit.Test
+    public void encryptDecryptFile() throws IOException {
+        System.out.print("Testing pipelined encryptFile and decryptFile...");
+
+        SDES sdes = new SDES("0111010001");
+        // Not a multiple of the chunk size, and many more chunks than buffers
+        byte[] plain = new byte[100123];
+        new Random(21).nextBytes(plain);
+
+        File plainFile = File.createTempFile("sdes", ".txt");
+        File cryptedFile = File.createTempFile("sdes", ".enc.txt");
+        File decryptedFile = File.createTempFile("sdes", ".dec.txt");
+
+        try {
+            Files.write(plainFile.toPath(), plain);
+
+            // One call per chunk written: the file is cut into chunks of the size asked
+            final AtomicInteger chunks = new AtomicInteger();
+            ProgressListener counter = new ProgressListener() {
+                @Override
+                public void progress(long bytes) {
+                    assertTrue(bytes <= 1000);
+                    chunks.incrementAndGet();
+                }
+            };
+
+            new PipelinedFileCipher(sdes, 3, 1000, 4).encryptFile(plainFile, cryptedFile, counter);
+            assertEquals(101, chunks.get());
+            byte[] crypted = Files.readAllBytes(cryptedFile.toPath());
+            assertEquals(plain.length, crypted.length);
+            for (int i = 0 ; i < plain.length ; i++)
+                assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+
+            // A single buffer: the stages take turns
+            new PipelinedFileCipher(sdes, 1, 777, 1).decryptFile(cryptedFile, decryptedFile);
+            assertArrayEquals(plain, Files.readAllBytes(decryptedFile.toPath()));
+        } finally {
+            plainFile.delete();
+            cryptedFile.delete();
+            decryptedFile.delete();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void emptyAndMissingFiles() throws IOException {
+        System.out.print("Testing pipelined encryptFile on empty and missing files...");
+
+        File plainFile = File.createTempFile("sdes", ".txt");
+        File cryptedFile = File.createTempFile("sdes", ".enc.txt");
+        PipelinedFileCipher cipher = new PipelinedFileCipher(new SDES("0111010001"), 2);
+
+        try {
+            cipher.encryptFile(plainFile, cryptedFile);
+            assertEquals(0, cryptedFile.length());
+
+            try {
+                cipher.encryptFile(new File(plainFile.getPath() + ".missing"), cryptedFile);
+                fail("A missing file was accepted");
+            } catch (IOException e) {
+                // expected
+            }
+        } finally {
+            plainFile.delete();
+            cryptedFile.delete();
+        }
+
+        System.out.println(" success");
+    }
+}
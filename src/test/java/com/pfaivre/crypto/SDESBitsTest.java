@@ -0,0 +1,199 @@
+package com.pfaivre.crypto;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Same cases as SDESTest, run against the bit-packed primitives.
+ * Each primitive is also compared to its boolean[] counterpart for every possible input.
+ */
+public class SDESBitsTest {
+    @org.junit.Test
+    public void p10() {
+        System.out.print("Testing p10...");
+
+        assertEquals(0b0001101010, SDESBits.p10(0b1001001100));
+
+        for (int i = 0 ; i < 1024 ; i++)
+            assertEquals(SDES.bool2int(SDES.p10(SDES.int2bool(i, 10))), SDESBits.p10(i));
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void p8() {
+        System.out.print("Testing p8...");
+
+        assertEquals(0b00111000, SDESBits.p8(0b1001001100));
+
+        for (int i = 0 ; i < 1024 ; i++)
+            assertEquals(SDES.bool2int(SDES.p8(SDES.int2bool(i, 10))), SDESBits.p8(i));
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void circularLeftShift() {
+        System.out.print("Testing circularLeftShift...");
+
+        assertEquals(0b0000111000, SDESBits.circularLeftShift(0b1000001100, 1));
+        assertEquals(0b0010000011, SDESBits.circularLeftShift(0b1000001100, 3));
+        assertEquals(0b1000001100, SDESBits.circularLeftShift(0b1000001100, 50));
+
+        for (int i = 0 ; i < 1024 ; i++) {
+            for (int offset = 0 ; offset < 6 ; offset++) {
+                assertEquals(SDES.bool2int(SDES.circularLeftShift(SDES.int2bool(i, 10), offset)),
+                        SDESBits.circularLeftShift(i, offset));
+            }
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void generateKeys() {
+        System.out.print("Testing generateKeys...");
+
+        int keys = SDESBits.generateKeys(0b1010000010);
+        assertEquals(0b10100100, keys >> 8);
+        assertEquals(0b01000011, keys & 0xFF);
+
+        for (int i = 0 ; i < 1024 ; i++) {
+            ArrayList<boolean[]> expected = SDES.generateKeys(SDES.int2bool(i, 10));
+            keys = SDESBits.generateKeys(i);
+            assertEquals(SDES.bool2int(expected.get(0)), keys >> 8);
+            assertEquals(SDES.bool2int(expected.get(1)), keys & 0xFF);
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void ipAndRip() {
+        System.out.print("Testing ip and rip...");
+
+        assertEquals(0b10101001, SDESBits.ip(0b01110010));
+        assertEquals(0b01111000, SDESBits.ip(0b10110100));
+        assertEquals(0b11000001, SDESBits.ip(0b01000110));
+
+        assertEquals(0b01110111, SDESBits.rip(0b11101101));
+        assertEquals(0b10110100, SDESBits.rip(0b01111000));
+        assertEquals(0b01000110, SDESBits.rip(0b11000001));
+
+        for (int i = 0 ; i < 256 ; i++) {
+            assertEquals(SDES.bool2int(SDES.ip(SDES.int2bool(i, 8))), SDESBits.ip(i));
+            assertEquals(SDES.bool2int(SDES.rip(SDES.int2bool(i, 8))), SDESBits.rip(i));
+            assertEquals(i, SDESBits.rip(SDESBits.ip(i)));
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void ep() {
+        System.out.print("Testing ep...");
+
+        assertEquals(0b11000011, SDESBits.ep(0b1001));
+
+        for (int i = 0 ; i < 16 ; i++)
+            assertEquals(SDES.bool2int(SDES.ep(SDES.int2bool(i, 4))), SDESBits.ep(i));
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void xor() {
+        System.out.print("Testing xor...");
+
+        assertEquals(0b11111010, SDESBits.xor(0b10010100, 0b01101110));
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void sboxTransform() {
+        System.out.print("Testing sboxTransform...");
+
+        assertEquals(0b1011, SDESBits.sboxTransform(0b01100111));
+        assertEquals(0b0110, SDESBits.sboxTransform(0b11000001));
+        assertEquals(0b1101, SDESBits.sboxTransform(0b11011011));
+        assertEquals(0b1011, SDESBits.sboxTransform(0b11111111));
+        assertEquals(0b0100, SDESBits.sboxTransform(0b00000000));
+
+        for (int i = 0 ; i < 256 ; i++)
+            assertEquals(SDES.bool2int(SDES.sboxTransform(SDES.int2bool(i, 8))), SDESBits.sboxTransform(i));
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void p4() {
+        System.out.print("Testing p4...");
+
+        assertEquals(0b0111, SDESBits.p4(0b1011));
+        assertEquals(0b1010, SDESBits.p4(0b0110));
+
+        for (int i = 0 ; i < 16 ; i++)
+            assertEquals(SDES.bool2int(SDES.p4(SDES.int2bool(i, 4))), SDESBits.p4(i));
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void fK() {
+        System.out.print("Testing fK...");
+
+        assertEquals(0b10010100, SDESBits.fK(0b01110100, 0b00101111));
+        assertEquals(0b01101001, SDESBits.fK(0b01001001, 0b11101010));
+
+        for (int i = 0 ; i < 256 ; i++) {
+            for (int sk = 0 ; sk < 256 ; sk++) {
+                assertEquals(SDES.bool2int(SDES.fK(SDES.int2bool(i, 8), SDES.int2bool(sk, 8))), SDESBits.fK(i, sk));
+            }
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void sw() {
+        System.out.print("Testing sw...");
+
+        assertEquals(0b00001111, SDESBits.sw(0b11110000));
+        assertEquals(0b00111001, SDESBits.sw(0b10010011));
+
+        for (int i = 0 ; i < 256 ; i++)
+            assertEquals(SDES.bool2int(SDES.sw(SDES.int2bool(i, 8))), SDESBits.sw(i));
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void encryptAndDecrypt() {
+        System.out.print("Testing encrypt and decrypt...");
+
+        int keys = SDESBits.generateKeys(0b0111010001);
+        assertEquals(0b01110011, SDESBits.encrypt(0b11010101, keys >> 8, keys & 0xFF));
+        assertEquals(0b11010101, SDESBits.decrypt(0b01110011, keys >> 8, keys & 0xFF));
+
+        keys = SDESBits.generateKeys(0b0000000000);
+        assertEquals(0b11110000, SDESBits.encrypt(0b00000000, keys >> 8, keys & 0xFF));
+
+        keys = SDESBits.generateKeys(0b0010010111);
+        assertEquals(0b00110110, SDESBits.encrypt(0b10100101, keys >> 8, keys & 0xFF));
+
+        // Every key and every block against the boolean[] implementation
+        for (int key = 0 ; key < 1024 ; key++) {
+            SDES sdes = SDES.forKey(key);
+            keys = SDESBits.generateKeys(key);
+
+            for (int i = 0 ; i < 256 ; i++) {
+                assertEquals(sdes.encryptBlock((byte)i), (byte)SDESBits.encrypt(i, keys >> 8, keys & 0xFF));
+                assertEquals(sdes.decryptBlock((byte)i), (byte)SDESBits.decrypt(i, keys >> 8, keys & 0xFF));
+            }
+        }
+
+        System.out.println(" success");
+    }
+}
@@ -0,0 +1,102 @@
+package com.pfaivre.crypto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of SDESInputStream and SDESOutputStream
+ */
+public class SDESStreamTest {
+    @org.junit.Test
+    public void outputStream() throws IOException {
+        System.out.print("Testing SDESOutputStream...");
+
+        SDES sdes = new SDES("0111010001");
+        byte[] plain = new byte[10000];
+        new Random(17).nextBytes(plain);
+        byte[] original = plain.clone();
+
+        ByteArrayOutputStream crypted = new ByteArrayOutputStream();
+        OutputStream output = new SDESOutputStream(crypted, sdes, false, 100);
+        output.write(plain[0]);
+        output.write(plain, 1, 4999);
+        output.write(plain, 5000, 5000);
+        output.close();
+
+        // The data given to write must be left untouched
+        assertArrayEquals(original, plain);
+
+        byte[] result = crypted.toByteArray();
+        assertEquals(plain.length, result.length);
+        for (int i = 0 ; i < plain.length ; i++)
+            assertEquals(sdes.encrypt(plain[i]), result[i]);
+
+        ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+        output = new SDESOutputStream(decrypted, sdes, true);
+        output.write(result);
+        output.close();
+        assertArrayEquals(plain, decrypted.toByteArray());
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void inputStream() throws IOException {
+        System.out.print("Testing SDESInputStream...");
+
+        SDES sdes = new SDES("1111111111");
+        byte[] plain = new byte[10000];
+        new Random(19).nextBytes(plain);
+
+        InputStream input = new SDESInputStream(new ByteArrayInputStream(plain), sdes, false);
+        byte[] crypted = new byte[plain.length];
+        crypted[0] = (byte)input.read();
+        int total = 1;
+        int n;
+        while ((n = input.read(crypted, total, Math.min(333, crypted.length - total))) > 0)
+            total += n;
+        assertEquals(-1, input.read());
+        input.close();
+
+        assertEquals(plain.length, total);
+        for (int i = 0 ; i < plain.length ; i++)
+            assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+
+        input = new SDESInputStream(new ByteArrayInputStream(crypted), sdes, true);
+        byte[] decrypted = new byte[plain.length];
+        total = 0;
+        while ((n = input.read(decrypted, total, decrypted.length - total)) > 0)
+            total += n;
+        input.close();
+        assertArrayEquals(plain, decrypted);
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void encryptDecryptStream() throws IOException {
+        System.out.print("Testing encryptStream and decryptStream...");
+
+        SDES sdes = new SDES("0010010111");
+        byte[] plain = new byte[10000];
+        new Random(29).nextBytes(plain);
+
+        ByteArrayOutputStream crypted = new ByteArrayOutputStream();
+        sdes.encryptStream(new ByteArrayInputStream(plain), crypted, 999);
+        byte[] result = crypted.toByteArray();
+        for (int i = 0 ; i < plain.length ; i++)
+            assertEquals(sdes.encrypt(plain[i]), result[i]);
+
+        ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+        sdes.decryptStream(new ByteArrayInputStream(result), decrypted, 1 << 20);
+        assertArrayEquals(plain, decrypted.toByteArray());
+
+        System.out.println(" success");
+    }
+}
@@ -1,6 +1,20 @@
 package com.pfaivre.crypto;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assume;
 
 import static org.junit.Assert.*;
 
@@ -414,4 +428,376 @@ public class SDESTest {
 
         System.out.println(" success");
     }
+
+    @org.junit.Test
+    public void substitutionTables() {
+        System.out.print("Testing substitutionTables...");
+
+        SDES sdes = new SDES("0111010001");
+
+        // The tables must give the same result as the complete S-DES steps for every byte
+        for (int i = 0 ; i < 256 ; i++) {
+            assertEquals(sdes.encryptBlock((byte)i), sdes.encrypt((byte)i));
+            assertEquals(sdes.decryptBlock((byte)i), sdes.decrypt((byte)i));
+            assertEquals((byte)i, sdes.decrypt(sdes.encrypt((byte)i)));
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void bulkEncryptDecrypt() {
+        System.out.print("Testing bulk encrypt and decrypt...");
+
+        SDES sdes = new SDES("0010010111");
+        byte[] plain = new byte[1000];
+        new Random(42).nextBytes(plain);
+
+        byte[] crypted = new byte[plain.length + 10];
+        sdes.encrypt(plain, 0, plain.length, crypted, 10);
+        for (int i = 0 ; i < plain.length ; i++)
+            assertEquals(sdes.encrypt(plain[i]), crypted[10 + i]);
+
+        // In place, with overlapping ranges
+        sdes.decrypt(crypted, 10, plain.length, crypted, 0);
+        for (int i = 0 ; i < plain.length ; i++)
+            assertEquals(plain[i], crypted[i]);
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void encryptDecryptFile() throws IOException {
+        System.out.print("Testing encryptFile and decryptFile...");
+
+        SDES sdes = new SDES("0111010001");
+        byte[] plain = new byte[100000];
+        new Random(7).nextBytes(plain);
+
+        File plainFile = File.createTempFile("sdes", ".txt");
+        File cryptedFile = File.createTempFile("sdes", ".enc.txt");
+        File decryptedFile = File.createTempFile("sdes", ".dec.txt");
+
+        try {
+            Files.write(plainFile.toPath(), plain);
+
+            sdes.encryptFile(plainFile, cryptedFile, 1000);
+            byte[] crypted = Files.readAllBytes(cryptedFile.toPath());
+            assertEquals(plain.length, crypted.length);
+            for (int i = 0 ; i < plain.length ; i++)
+                assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+
+            sdes.decryptFile(cryptedFile, decryptedFile);
+            assertArrayEquals(plain, Files.readAllBytes(decryptedFile.toPath()));
+        } finally {
+            plainFile.delete();
+            cryptedFile.delete();
+            decryptedFile.delete();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void encryptSpecialFile() throws IOException {
+        System.out.print("Testing encryptFile on a file reporting a size of 0...");
+
+        // Like FIFOs and /dev/stdin, the files of /proc report a size of 0 but have a content
+        File special = new File("/proc/version");
+        Assume.assumeTrue(special.canRead());
+
+        SDES sdes = new SDES("0111010001");
+        File cryptedFile = File.createTempFile("sdes", ".enc.txt");
+
+        try {
+            byte[] plain = Files.readAllBytes(special.toPath());
+            assertTrue(plain.length > 0);
+
+            sdes.encryptFile(special, cryptedFile);
+            byte[] crypted = Files.readAllBytes(cryptedFile.toPath());
+            assertEquals(plain.length, crypted.length);
+            for (int i = 0 ; i < plain.length ; i++)
+                assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+        } finally {
+            cryptedFile.delete();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void encryptDecryptFileMapped() throws IOException {
+        System.out.print("Testing encryptFileMapped and decryptFileMapped...");
+
+        SDES sdes = new SDES("1111111111");
+        byte[] plain = new byte[100000];
+        new Random(3).nextBytes(plain);
+
+        File plainFile = File.createTempFile("sdes", ".txt");
+        File cryptedFile = File.createTempFile("sdes", ".enc.txt");
+        File decryptedFile = File.createTempFile("sdes", ".dec.txt");
+
+        try {
+            Files.write(plainFile.toPath(), plain);
+
+            sdes.encryptFileMapped(plainFile, cryptedFile);
+            byte[] crypted = Files.readAllBytes(cryptedFile.toPath());
+            assertEquals(plain.length, crypted.length);
+            for (int i = 0 ; i < plain.length ; i++)
+                assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+
+            sdes.decryptFileMapped(cryptedFile, decryptedFile);
+            assertArrayEquals(plain, Files.readAllBytes(decryptedFile.toPath()));
+        } finally {
+            plainFile.delete();
+            cryptedFile.delete();
+            decryptedFile.delete();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void encryptDecryptInPlace() throws IOException {
+        System.out.print("Testing encryptInPlace and decryptInPlace...");
+
+        SDES sdes = new SDES("0010010111");
+        byte[] plain = new byte[10000];
+        new Random(11).nextBytes(plain);
+
+        Path file = File.createTempFile("sdes", ".txt").toPath();
+        Path journal = file.resolveSibling(file.getFileName() + SDES.JOURNAL_SUFFIX);
+
+        try {
+            Files.write(file, plain);
+
+            sdes.encryptInPlace(file, 1000);
+            byte[] crypted = Files.readAllBytes(file);
+            for (int i = 0 ; i < plain.length ; i++)
+                assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+            assertFalse(Files.exists(journal));
+
+            sdes.decryptInPlace(file);
+            assertArrayEquals(plain, Files.readAllBytes(file));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(journal);
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void resumeInPlace() throws IOException {
+        System.out.print("Testing the resume of an interrupted encryptInPlace...");
+
+        SDES sdes = new SDES("0010010111");
+        byte[] plain = new byte[10000];
+        new Random(13).nextBytes(plain);
+
+        Path file = File.createTempFile("sdes", ".txt").toPath();
+        Path journal = file.resolveSibling(file.getFileName() + SDES.JOURNAL_SUFFIX);
+
+        try {
+            // State left by a crash while the chunk [3000, 4000) was being written:
+            // the chunks before it are encrypted, the chunk itself only by half
+            byte[] interrupted = plain.clone();
+            sdes.encrypt(interrupted, 0, 3500, interrupted, 0);
+            Files.write(file, interrupted);
+
+            ByteBuffer saved = ByteBuffer.allocate(21 + 1000);
+            saved.putInt(0x53444A31).put((byte)0);
+            saved.put(sdes.encrypt((byte)0)).put(sdes.encrypt((byte)1)).put(sdes.encrypt((byte)2)).put(sdes.encrypt((byte)3));
+            saved.putLong(3000).putInt(1000).put(plain, 3000, 1000);
+            Files.write(journal, saved.array());
+
+            // Resuming with another operation must be refused
+            try {
+                sdes.decryptInPlace(file, 1000);
+                fail("The journal of an encryption has been used to decrypt");
+            } catch (IOException e) {
+                // expected
+            }
+
+            sdes.encryptInPlace(file, 1000);
+            byte[] crypted = Files.readAllBytes(file);
+            for (int i = 0 ; i < plain.length ; i++)
+                assertEquals(sdes.encrypt(plain[i]), crypted[i]);
+            assertFalse(Files.exists(journal));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(journal);
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void byteBufferEncryptDecrypt() {
+        System.out.print("Testing ByteBuffer encrypt and decrypt...");
+
+        SDES sdes = new SDES("0111010001");
+        byte[] plain = new byte[1000];
+        new Random(23).nextBytes(plain);
+
+        // Heap to direct
+        ByteBuffer src = ByteBuffer.wrap(plain, 100, 800);
+        ByteBuffer dst = ByteBuffer.allocateDirect(1000);
+        dst.position(10);
+        assertEquals(800, sdes.encrypt(src, dst));
+        assertEquals(900, src.position());
+        assertEquals(810, dst.position());
+        for (int i = 0 ; i < 800 ; i++)
+            assertEquals(sdes.encrypt(plain[100 + i]), dst.get(10 + i));
+
+        // Direct, in place
+        dst.flip();
+        dst.position(10);
+        assertEquals(800, sdes.decrypt(dst, dst));
+        assertEquals(810, dst.position());
+        for (int i = 0 ; i < 800 ; i++)
+            assertEquals(plain[100 + i], dst.get(10 + i));
+
+        // Heap, in place
+        ByteBuffer heap = ByteBuffer.wrap(plain.clone());
+        sdes.encrypt(heap, heap);
+        assertFalse(heap.hasRemaining());
+        for (int i = 0 ; i < plain.length ; i++)
+            assertEquals(sdes.encrypt(plain[i]), heap.get(i));
+
+        // Not enough space
+        src = ByteBuffer.wrap(plain);
+        try {
+            sdes.encrypt(src, ByteBuffer.allocate(999));
+            fail("A too small buffer has been accepted");
+        } catch (java.nio.BufferOverflowException e) {
+            assertEquals(0, src.position());
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void forKey() {
+        System.out.print("Testing forKey...");
+
+        SDES sdes = SDES.forKey(0b0111010001);
+        assertSame(sdes, SDES.forKey("0111010001"));
+        assertEquals("Key : 0111010001", sdes.toString());
+        assertEquals((byte)0b01110011, sdes.encrypt((byte)0b11010101));
+
+        assertEquals(0b0111010001, SDES.parseKey("0111010001"));
+        assertEquals("0111010001", SDES.keyToString(0b0111010001));
+
+        try {
+            SDES.forKey(1024);
+            fail("A key of 11 bits has been accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new SDES("01110100");
+            fail("A key of 8 bits has been accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new SDES("011101000a");
+            fail("A key with a character other than a bit has been accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void concurrentUse() throws Exception {
+        System.out.print("Testing the concurrent use of a shared instance...");
+
+        final SDES shared = SDES.forKey("0010010111");
+        final int threads = 16;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int t = 0 ; t < threads ; t++) {
+                final int seed = t;
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        Random random = new Random(seed);
+                        byte[] plain = new byte[4096];
+                        byte[] crypted = new byte[plain.length];
+                        byte[] decrypted = new byte[plain.length];
+
+                        // All the threads hit the instance at the same time
+                        start.await();
+
+                        for (int round = 0 ; round < 200 ; round++) {
+                            random.nextBytes(plain);
+                            shared.encrypt(plain, 0, plain.length, crypted, 0);
+                            shared.decrypt(crypted, 0, crypted.length, decrypted, 0);
+                            assertArrayEquals(plain, decrypted);
+
+                            int i = random.nextInt(plain.length);
+                            assertEquals(shared.encryptBlock(plain[i]), crypted[i]);
+                            assertEquals(plain[i], shared.decrypt(shared.encrypt(plain[i])));
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            start.countDown();
+            for (Future<Void> result : results)
+                result.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.println(" success");
+    }
+
+    @org.junit.Test
+    public void progress() throws IOException {
+        System.out.print("Testing the progress of the file operations...");
+
+        SDES sdes = new SDES("0111010001");
+        File plainFile = File.createTempFile("sdes", ".txt");
+        File cryptedFile = File.createTempFile("sdes", ".enc.txt");
+
+        try {
+            Files.write(plainFile.toPath(), new byte[10000]);
+
+            final java.util.concurrent.atomic.AtomicLong bytes = new java.util.concurrent.atomic.AtomicLong();
+            final java.util.concurrent.atomic.AtomicInteger calls = new java.util.concurrent.atomic.AtomicInteger();
+            ProgressListener listener = new ProgressListener() {
+                @Override
+                public void progress(long chunk) {
+                    bytes.addAndGet(chunk);
+                    calls.incrementAndGet();
+                }
+            };
+
+            // Once per chunk of 1024 bytes, the last one being shorter
+            sdes.encryptFile(plainFile, cryptedFile, 1024, listener);
+            assertEquals(10000, bytes.get());
+            assertEquals(10, calls.get());
+
+            bytes.set(0);
+            sdes.decryptInPlace(cryptedFile.toPath(), 4096, listener);
+            assertEquals(10000, bytes.get());
+
+            bytes.set(0);
+            new ParallelFileCipher(sdes, 3, 1000).encryptFile(plainFile, cryptedFile, listener);
+            assertEquals(10000, bytes.get());
+        } finally {
+            plainFile.delete();
+            cryptedFile.delete();
+        }
+
+        System.out.println(" success");
+    }
 }